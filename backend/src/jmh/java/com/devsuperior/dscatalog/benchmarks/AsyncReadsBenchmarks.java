@@ -0,0 +1,77 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Carga mista sobre HTTP: listagens filtradas por nome (varredura com LIKE,
+ * lentas) disputando o servidor com leituras rápidas (categoria por id e o
+ * health do actuator). Comparar asyncReads=true e false: sem o executor,
+ * as listagens lentas prendem todas as threads do Tomcat e as leituras
+ * rápidas esperam na fila de conexões; com ele, as threads do servidor
+ * ficam livres e o excesso de leituras lentas volta como 503 (rejected).
+ * Sugestão: -p catalogSize=100000.
+ * */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class AsyncReadsBenchmarks {
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Responses {
+		public long ok;
+		public long rejected;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			ok = 0;
+			rejected = 0;
+		}
+
+		void record(int status) {
+			if (status == 503) {
+				rejected++;
+			} else if (status < 400) {
+				ok++;
+			}
+		}
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(32)
+	public void slowFilteredListing(HttpCatalogState state, Responses responses) throws Exception {
+		responses.record(state.get("/products?name=product%209&size=20"));
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(4)
+	public void fastCategoryRead(HttpCatalogState state, Responses responses) throws Exception {
+		responses.record(state.get("/categories/1"));
+	}
+
+	@Benchmark
+	@Group("mixed")
+	@GroupThreads(4)
+	public void health(HttpCatalogState state, Responses responses) throws Exception {
+		responses.record(state.get("/actuator/health"));
+	}
+}
@@ -0,0 +1,101 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+
+/*
+ * Sobe a aplicação sem servidor web sobre um H2 em memória e semeia um
+ * catálogo sintético de catalogSize produtos (além dos 25 do data.sql).
+ * */
+@State(Scope.Benchmark)
+public class CatalogState {
+
+	private static final int SEED_BATCH = 10_000;
+	private static final long SEED_PRODUCTS = 25L;
+
+	@Param({"10000", "100000", "1000000"})
+	public int catalogSize;
+
+	ConfigurableApplicationContext context;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		context = application().run(arguments().toArray(new String[0]));
+		seed(context.getBean(JdbcTemplate.class));
+		// A carga via JDBC não passa pelo Hibernate: nada em cache pode sobreviver a ela.
+		context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	protected SpringApplicationBuilder application() {
+		return new SpringApplicationBuilder(DscatalogApplication.class)
+				.web(WebApplicationType.NONE);
+	}
+
+	/*
+	 * Passadas como argumentos de linha de comando: SpringApplicationBuilder.properties
+	 * define propriedades default, que perdem para o application-test.properties.
+	 * */
+	protected List<String> arguments() {
+		List<String> args = new ArrayList<>();
+		args.add("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+		args.add("--spring.jpa.show-sql=false");
+		args.add("--logging.level.root=WARN");
+		return args;
+	}
+
+	<T> T bean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+	long randomProductId() {
+		return ThreadLocalRandom.current().nextLong(1, SEED_PRODUCTS + catalogSize + 1);
+	}
+
+	int pageCount(int pageSize) {
+		return (int) ((SEED_PRODUCTS + catalogSize) / pageSize);
+	}
+
+	private void seed(JdbcTemplate jdbcTemplate) {
+		Timestamp date = Timestamp.from(Instant.parse("2020-07-14T10:00:00Z"));
+		List<Object[]> products = new ArrayList<>(SEED_BATCH);
+		List<Object[]> categories = new ArrayList<>(SEED_BATCH);
+
+		for (long i = 1; i <= catalogSize; i++) {
+			long id = SEED_PRODUCTS + i;
+			products.add(new Object[] { id, "Product " + i, "Synthetic product " + i, 10.0 + i % 5000, "https://img.com/" + i + ".png", date, date });
+			categories.add(new Object[] { id, i % 3 + 1 });
+
+			if (products.size() == SEED_BATCH || i == catalogSize) {
+				jdbcTemplate.batchUpdate("INSERT INTO tb_product (id, version, name, description, price, img_url, date, updated_at) VALUES (?, 0, ?, ?, ?, ?, ?, ?)", products);
+				jdbcTemplate.batchUpdate("INSERT INTO tb_product_category (product_id, category_id) VALUES (?, ?)", categories);
+				products.clear();
+				categories.clear();
+			}
+		}
+		jdbcTemplate.execute("ALTER SEQUENCE tb_product_seq RESTART WITH " + (SEED_PRODUCTS + catalogSize + 1));
+	}
+}
@@ -0,0 +1,60 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+/*
+ * Mesmo catálogo do CatalogState, agora atrás do Tomcat em uma porta livre
+ * e com poucas threads de servidor, para que leituras lentas possam
+ * esgotá-las. asyncReads liga ou desliga o executor de leituras.
+ * */
+@State(Scope.Benchmark)
+public class HttpCatalogState extends CatalogState {
+
+	@Param({"true", "false"})
+	public boolean asyncReads;
+
+	@Param({"8"})
+	public int serverThreads;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	@Override
+	protected SpringApplicationBuilder application() {
+		return super.application()
+				.web(WebApplicationType.SERVLET);
+	}
+
+	@Override
+	protected List<String> arguments() {
+		List<String> args = super.arguments();
+		args.add("--server.port=0");
+		args.add("--server.tomcat.threads.max=" + serverThreads);
+		args.add("--server.tomcat.accept-count=1000");
+		args.add("--spring.datasource.hikari.maximum-pool-size=" + serverThreads);
+		args.add("--dscatalog.async.enabled=" + asyncReads);
+		return args;
+	}
+
+	int get(String path) throws Exception {
+		int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30))
+				.GET()
+				.build();
+		return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+}
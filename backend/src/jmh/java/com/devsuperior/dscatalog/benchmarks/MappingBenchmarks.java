@@ -0,0 +1,103 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.RoleDTO;
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Role;
+import com.devsuperior.dscatalog.entities.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Conversões entidade -> DTO e serialização JSON, sem banco nem contexto Spring.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmarks {
+
+	private static final int PAGE_SIZE = 20;
+
+	private Product product;
+	private Category category;
+	private User user;
+	private List<RoleDTO> roles;
+	private PageImpl<ProductDTO> page;
+	private ObjectMapper objectMapper;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		category = new Category(3L, "Computadores");
+		product = new Product(1L, "PC Gamer Alfa", "Lorem ipsum dolor sit amet, consectetur adipiscing elit.", 1850.0,
+				"https://img.com/8-big.jpg", Instant.parse("2020-07-14T10:00:00Z"));
+		product.getCategories().add(category);
+		product.getCategories().add(new Category(2L, "Eletrônicos"));
+
+		user = new User(1L, "Maria", "Green", "maria@gmail.com", "secret");
+		user.getRoles().add(new Role(1L, "ROLE_OPERATOR"));
+		user.getRoles().add(new Role(2L, "ROLE_ADMIN"));
+		roles = List.of(new RoleDTO(1L, "ROLE_OPERATOR"), new RoleDTO(2L, "ROLE_ADMIN"));
+
+		List<ProductDTO> content = new ArrayList<>();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			content.add(new ProductDTO(product, product.getCategories()));
+		}
+		page = new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 1000);
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	}
+
+	@Benchmark
+	public ProductDTO productDto() {
+		return new ProductDTO(product, product.getCategories());
+	}
+
+	@Benchmark
+	public CategoryDTO categoryDto() {
+		return new CategoryDTO(category);
+	}
+
+	@Benchmark
+	public UserDTO userDtoFromEntityRoles() {
+		return new UserDTO(user);
+	}
+
+	@Benchmark
+	public UserDTO userDtoFromRegistryRoles() {
+		return new UserDTO(user, roles);
+	}
+
+	@Benchmark
+	public byte[] serializeProductPage() throws Exception {
+		return objectMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] serializeProduct() throws Exception {
+		return objectMapper.writeValueAsBytes(page.getContent().get(0));
+	}
+}
@@ -0,0 +1,62 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
+
+/*
+ * Ranking do índice de busca sobre o catálogo sintético. "product" casa
+ * todos os produtos, o pior caso para ordenar o resultado; "product 9"
+ * casa uma fração deles. Sugestão: -p catalogSize=100000.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SearchBenchmarks {
+
+	private static final int PAGE_SIZE = 20;
+	private static final int DEEP_PAGES = 50;
+
+	private ProductSearchIndex searchIndex;
+
+	@Setup(Level.Trial)
+	public void setup(CatalogState catalog) {
+		searchIndex = catalog.bean(ProductSearchIndex.class);
+		// O índice é montado na subida, antes da carga sintética via JDBC.
+		searchIndex.rebuild();
+	}
+
+	@Benchmark
+	public Page<Long> broadFirstPage() {
+		return searchIndex.search("product", PageRequest.of(0, PAGE_SIZE));
+	}
+
+	@Benchmark
+	public Page<Long> broadDeepPage() {
+		int page = ThreadLocalRandom.current().nextInt(DEEP_PAGES);
+		return searchIndex.search("product", PageRequest.of(page, PAGE_SIZE));
+	}
+
+	@Benchmark
+	public Page<Long> prefixFirstPage() {
+		return searchIndex.search("product 9", PageRequest.of(0, PAGE_SIZE));
+	}
+}
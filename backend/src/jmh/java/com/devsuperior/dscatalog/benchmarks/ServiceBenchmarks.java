@@ -0,0 +1,93 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ImportSummaryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.ProductImportService;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Caminhos de serviço sobre o catálogo sintético. insert passa por
+ * copyDtoToEntity; bulkInsert importa 1.000 produtos por chamada.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceBenchmarks {
+
+	private static final int PAGE_SIZE = 20;
+	private static final int BULK_ROWS = 1000;
+
+	private ProductService productService;
+	private ProductImportService productImportService;
+	private ProductDTO newProduct;
+	private byte[] bulkBody;
+
+	@Setup(Level.Trial)
+	public void setup(CatalogState catalog) throws Exception {
+		productService = catalog.bean(ProductService.class);
+		productImportService = catalog.bean(ProductImportService.class);
+
+		newProduct = new ProductDTO(null, "Benchmark product", "Inserted by the benchmark", 99.9,
+				"https://img.com/benchmark.png", Instant.parse("2020-07-14T10:00:00Z"));
+		CategoryDTO category = new CategoryDTO();
+		category.setId(3L);
+		newProduct.getCategories().add(category);
+
+		ObjectMapper objectMapper = catalog.bean(ObjectMapper.class);
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < BULK_ROWS; i++) {
+			body.append(objectMapper.writeValueAsString(newProduct)).append('\n');
+		}
+		bulkBody = body.toString().getBytes();
+	}
+
+	@Benchmark
+	public Page<ProductDTO> findAllPaged(CatalogState catalog) {
+		int page = ThreadLocalRandom.current().nextInt(catalog.pageCount(PAGE_SIZE));
+		return productService.findAllPaged(PageRequest.of(page, PAGE_SIZE, Sort.by("name")));
+	}
+
+	@Benchmark
+	public ProductDTO findById(CatalogState catalog) {
+		return productService.findById(catalog.randomProductId());
+	}
+
+	@Benchmark
+	public ProductDTO insert() {
+		return productService.insert(newProduct);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 10)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public ImportSummaryDTO bulkInsert() {
+		return productImportService.importProducts(new ByteArrayInputStream(bulkBody));
+	}
+}
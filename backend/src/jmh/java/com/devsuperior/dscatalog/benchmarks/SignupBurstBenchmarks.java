@@ -0,0 +1,104 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.UserService;
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+/*
+ * Teste de carga: latência das leituras do catálogo sozinhas (baseline)
+ * e durante uma rajada de cadastros (burst). Com o BCrypt no pool de
+ * hashing, o catalogRead das duas execuções deve ficar próximo; os
+ * cadastros recusados com 503 aparecem no contador rejected.
+ * */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SignupBurstBenchmarks {
+
+	private static final int PAGE_SIZE = 20;
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	private ProductService productService;
+	private UserService userService;
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class SignupCounters {
+		public long accepted;
+		public long rejected;
+	}
+
+	@Setup(Level.Trial)
+	public void setup(CatalogState catalog) {
+		productService = catalog.bean(ProductService.class);
+		userService = catalog.bean(UserService.class);
+	}
+
+	@Benchmark
+	@Group("baseline")
+	@GroupThreads(4)
+	public Page<ProductDTO> catalogRead(CatalogState catalog) {
+		return findPage(catalog);
+	}
+
+	@Benchmark
+	@Group("burst")
+	@GroupThreads(4)
+	public Page<ProductDTO> catalogReadDuringSignups(CatalogState catalog) {
+		return findPage(catalog);
+	}
+
+	@Benchmark
+	@Group("burst")
+	@GroupThreads(16)
+	public UserDTO signup(SignupCounters counters) {
+		UserInsertDTO dto = new UserInsertDTO();
+		long n = SEQUENCE.incrementAndGet();
+		dto.setFirstName("Burst");
+		dto.setLastName("User " + n);
+		dto.setEmail("burst" + n + "@benchmark.com");
+		dto.setPassword("123456");
+		try {
+			UserDTO result = userService.insert(dto).join();
+			counters.accepted++;
+			return result;
+		} catch (ServiceUnavailableException | CompletionException e) {
+			counters.rejected++;
+			return null;
+		}
+	}
+
+	private Page<ProductDTO> findPage(CatalogState catalog) {
+		int page = ThreadLocalRandom.current().nextInt(catalog.pageCount(PAGE_SIZE));
+		return productService.findAllPaged(PageRequest.of(page, PAGE_SIZE, Sort.by("name")));
+	}
+}
@@ -0,0 +1,37 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Escala de concorrência do GET /products com e sem virtual threads.
+ * Repetir com -t 8, -t 64 e -t 512 clientes; com plataforma, acima de
+ * serverThreads as requisições esperam na fila de conexões do Tomcat.
+ * mvn -P benchmark,virtual-threads -DskipTests verify
+ *   -Djmh.args="VirtualThreadBenchmarks -p catalogSize=100000 -p asyncReads=false -t 512"
+ * */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dnet.bytebuddy.experimental=true")
+@Threads(64)
+public class VirtualThreadBenchmarks {
+
+	private static final int PAGE_SIZE = 12;
+
+	@Benchmark
+	public int findAllPaged(VirtualThreadCatalogState state) throws Exception {
+		int page = ThreadLocalRandom.current().nextInt(state.pageCount(PAGE_SIZE));
+		return state.get("/products?page=" + page + "&size=" + PAGE_SIZE);
+	}
+}
@@ -0,0 +1,25 @@
+package com.devsuperior.dscatalog.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * HttpCatalogState com o modo de virtual threads ligado ou não.
+ * virtualThreads=true exige uma JVM 21 (perfil virtual-threads).
+ * */
+@State(Scope.Benchmark)
+public class VirtualThreadCatalogState extends HttpCatalogState {
+
+	@Param({"false", "true"})
+	public boolean virtualThreads;
+
+	@Override
+	protected List<String> arguments() {
+		List<String> args = super.arguments();
+		args.add("--dscatalog.virtual-threads.enabled=" + virtualThreads);
+		return args;
+	}
+}
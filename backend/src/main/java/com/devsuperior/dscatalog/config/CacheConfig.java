@@ -0,0 +1,89 @@
+package com.devsuperior.dscatalog.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String CATEGORIES = "categories";
+	public static final String CATEGORY_PAGES = "categoryPages";
+	public static final String PRODUCTS = "products";
+
+	@Value("${dscatalog.cache.categories.maximum-size:1000}")
+	private long categoriesMaximumSize;
+
+	@Value("${dscatalog.cache.categories.expire-after-write:10m}")
+	private Duration categoriesExpireAfterWrite;
+
+	@Value("${dscatalog.cache.products.maximum-size:10000}")
+	private long productsMaximumSize;
+
+	@Value("${dscatalog.cache.products.expire-after-write:5m}")
+	private Duration productsExpireAfterWrite;
+
+	/*
+	 * As invalidações só são aplicadas após o commit da transação,
+	 * evitando que uma leitura concorrente recoloque o valor antigo no cache.
+	 * */
+	@Bean
+	public CacheManager cacheManager() {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+		cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+				.maximumSize(categoriesMaximumSize)
+				.expireAfterWrite(categoriesExpireAfterWrite)
+				.recordStats()
+				.build());
+
+		cacheManager.registerCustomCache(CATEGORY_PAGES, Caffeine.newBuilder()
+				.maximumSize(categoriesMaximumSize)
+				.expireAfterWrite(categoriesExpireAfterWrite)
+				.recordStats()
+				.build());
+
+		// Limitado por tamanho: o Caffeine usa W-TinyLFU para escolher quem sai.
+		// O TTL limita a vida de uma entrada velha: a invalidação é local, então
+		// escritas de outras instâncias não chegam aqui, e uma carga lenta (ou lida
+		// de réplica atrasada) pode recolocar o DTO antigo depois do evict.
+		cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+				.maximumSize(productsMaximumSize)
+				.expireAfterWrite(productsExpireAfterWrite)
+				.recordStats()
+				.build());
+
+		return new TransactionAwareCacheManagerProxy(cacheManager);
+	}
+
+	/*
+	 * Gets e evictions já são publicados pelo actuator (cache.gets,
+	 * cache.evictions); aqui só se soma a taxa de acerto. O cache.load.duration
+	 * fica zerado porque as cargas de produtos e categorias passam pelo
+	 * SingleFlight, que publica o tempo em dscatalog.single-flight.load.
+	 * */
+	@Bean
+	public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+		return registry -> cacheManager.getCacheNames().forEach(name -> {
+			Object nativeCache = cacheManager.getCache(name).getNativeCache();
+			if (nativeCache instanceof Cache) {
+				Gauge.builder("cache.hit.ratio", (Cache<?, ?>) nativeCache, x -> x.stats().hitRate())
+						.tag("cache", name)
+						.register(registry);
+			}
+		});
+	}
+}
@@ -0,0 +1,45 @@
+package com.devsuperior.dscatalog.config;
+
+import javax.cache.CacheManager;
+import javax.cache.spi.CachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/*
+ * Cache de segundo nível do Hibernate sobre JCache (Caffeine). As regiões,
+ * com tamanho e TTL, ficam em application.conf, que o Caffeine lê em qualquer
+ * CacheManager: assim os testes de fatia, que não carregam esta classe,
+ * também as encontram. Com missing_cache_strategy=fail uma região sem
+ * configuração impede a subida.
+ * */
+@Configuration
+public class HibernateCacheConfig {
+
+	public static final String QUERY_RESULTS = "default-query-results-region";
+	public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+	/*
+	 * Um provider próprio, e não o Caching.getCachingProvider() estático:
+	 * cada contexto Spring (inclusive nos testes) tem o seu CacheManager.
+	 * */
+	@Bean(destroyMethod = "close")
+	public CachingProvider hibernateCachingProvider() {
+		return new CaffeineCachingProvider();
+	}
+
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager(CachingProvider hibernateCachingProvider) {
+		return hibernateCachingProvider.getCacheManager(
+				hibernateCachingProvider.getDefaultURI(), getClass().getClassLoader());
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+}
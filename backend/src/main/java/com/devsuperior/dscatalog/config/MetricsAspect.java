@@ -0,0 +1,91 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Tempo de cada chamada aos serviços (dscatalog.service) e aos repositórios
+ * (dscatalog.repository), com tags de classe, método e exceção; falhas dos
+ * serviços também contam em dscatalog.service.errors. Estatísticas do
+ * Hibernate e do pool Hikari vêm da autoconfiguração do actuator.
+ * Histogramas e percentis são ligados em application.properties.
+ * */
+@Aspect
+@Component
+public class MetricsAspect {
+
+	public static final String SERVICE_TIMER = "dscatalog.service";
+	public static final String SERVICE_ERRORS = "dscatalog.service.errors";
+	public static final String REPOSITORY_TIMER = "dscatalog.repository";
+
+	private static final String REPOSITORIES_PACKAGE = "com.devsuperior.dscatalog.repositories";
+
+	private final MeterRegistry registry;
+
+	// Classe do proxy -> interface do repositório (ProductRepository, ...)
+	private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+	public MetricsAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("within(com.devsuperior.dscatalog.services.ProductService) "
+			+ "|| within(com.devsuperior.dscatalog.services.CategoryService) "
+			+ "|| within(com.devsuperior.dscatalog.services.UserService)")
+	public Object timeService(ProceedingJoinPoint pjp) throws Throwable {
+		String type = pjp.getSignature().getDeclaringType().getSimpleName();
+		String method = pjp.getSignature().getName();
+		try {
+			return record(SERVICE_TIMER, "class", type, method, pjp);
+		} catch (Throwable e) {
+			Counter.builder(SERVICE_ERRORS)
+					.tag("class", type)
+					.tag("method", method)
+					.tag("exception", e.getClass().getSimpleName())
+					.register(registry)
+					.increment();
+			throw e;
+		}
+	}
+
+	@Around("target(org.springframework.data.repository.Repository)")
+	public Object timeRepository(ProceedingJoinPoint pjp) throws Throwable {
+		String repository = repositoryNames.computeIfAbsent(pjp.getThis().getClass(), MetricsAspect::repositoryName);
+		return record(REPOSITORY_TIMER, "repository", repository, pjp.getSignature().getName(), pjp);
+	}
+
+	private Object record(String name, String typeTag, String type, String method, ProceedingJoinPoint pjp) throws Throwable {
+		Timer.Sample sample = Timer.start(registry);
+		String exception = "none";
+		try {
+			return pjp.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(name)
+					.tag(typeTag, type)
+					.tag("method", method)
+					.tag("exception", exception)
+					.register(registry));
+		}
+	}
+
+	private static String repositoryName(Class<?> proxyClass) {
+		for (Class<?> type : proxyClass.getInterfaces()) {
+			if (type.getName().startsWith(REPOSITORIES_PACKAGE)) {
+				return type.getSimpleName();
+			}
+		}
+		return proxyClass.getSimpleName();
+	}
+}
@@ -0,0 +1,193 @@
+package com.devsuperior.dscatalog.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/*
+ * Envia transações readOnly para uma das réplicas e o resto para o primário.
+ * Precisa estar atrás de um LazyConnectionDataSourceProxy: a conexão só é
+ * escolhida no primeiro comando, quando o readOnly da transação já é conhecido.
+ *
+ * Depois de um commit no primário, as leituras desta instância continuam no
+ * primário durante stickyWindow (read-your-writes). A janela vale para a
+ * instância inteira, não por cliente: qualquer escrita manda as leituras de
+ * todos os clientes para o primário, e com escritas contínuas (intervalo menor
+ * que stickyWindow) as réplicas deixam de ser usadas. Janelas curtas, ou zero
+ * quando o cliente tolera atraso de replicação, mantêm as réplicas úteis.
+ *
+ * Réplicas que falham no health check saem do rodízio até voltarem; sem
+ * réplica saudável, tudo vai para o primário. A primeira verificação roda ao
+ * iniciar os health checks, antes de qualquer leitura chegar a uma réplica.
+ * */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+	static final String PRIMARY = "primary";
+
+	public enum Strategy {
+		ROUND_ROBIN, LEAST_CONNECTIONS;
+	}
+
+	private final DataSource primary;
+	private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+	private final Set<String> unhealthy = ConcurrentHashMap.newKeySet();
+	private final AtomicInteger next = new AtomicInteger();
+	private final Strategy strategy;
+	private final long stickyWindowNanos;
+
+	private volatile long lastWriteNanos;
+	private volatile boolean written;
+	private ScheduledExecutorService healthChecker;
+
+	public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, Strategy strategy, Duration stickyWindow) {
+		this.primary = primary;
+		this.strategy = strategy;
+		this.stickyWindowNanos = stickyWindow.toNanos();
+
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < replicas.size(); i++) {
+			String key = "replica-" + (i + 1);
+			this.replicas.put(key, replicas.get(i));
+			targets.put(key, replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			recordWrite();
+			return PRIMARY;
+		}
+		if (written && System.nanoTime() - lastWriteNanos < stickyWindowNanos) {
+			return PRIMARY;
+		}
+		String replica = selectReplica();
+		return replica == null ? PRIMARY : replica;
+	}
+
+	public void startHealthChecks(Duration interval, Duration timeout) {
+		healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "replica-health");
+			thread.setDaemon(true);
+			return thread;
+		});
+		checkReplicas(timeout);
+		healthChecker.scheduleWithFixedDelay(() -> checkReplicas(timeout),
+				interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public void checkReplicas(Duration timeout) {
+		replicas.forEach((key, dataSource) -> {
+			boolean healthy;
+			try (Connection connection = dataSource.getConnection()) {
+				healthy = connection.isValid((int) Math.max(1, timeout.getSeconds()));
+			} catch (SQLException | RuntimeException e) {
+				// O Hikari lança PoolInitializationException (runtime) se o pool nunca conectou.
+				healthy = false;
+			}
+			if (healthy && unhealthy.remove(key)) {
+				LOG.info("Replica {} is back in rotation", key);
+			} else if (!healthy && unhealthy.add(key)) {
+				LOG.warn("Replica {} failed its health check and left the rotation", key);
+			}
+		});
+	}
+
+	public List<String> getHealthyReplicas() {
+		List<String> result = new ArrayList<>(replicas.keySet());
+		result.removeAll(unhealthy);
+		return result;
+	}
+
+	@Override
+	public void close() {
+		if (healthChecker != null) {
+			healthChecker.shutdownNow();
+		}
+		replicas.values().forEach(ReadWriteRoutingDataSource::closeQuietly);
+		closeQuietly(primary);
+	}
+
+	private String selectReplica() {
+		List<String> healthy = getHealthyReplicas();
+		if (healthy.isEmpty()) {
+			return null;
+		}
+		if (strategy == Strategy.LEAST_CONNECTIONS) {
+			return healthy.stream()
+					.min(Comparator.comparingInt(x -> activeConnections(replicas.get(x))))
+					.get();
+		}
+		return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+	}
+
+	/*
+	 * A janela começa no commit; conexões fora de transação (inicialização,
+	 * DDL) não contam como escrita.
+	 * */
+	private void recordWrite() {
+		if (stickyWindowNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					markWrite();
+				}
+			}
+		});
+	}
+
+	private void markWrite() {
+		lastWriteNanos = System.nanoTime();
+		written = true;
+	}
+
+	private static int activeConnections(DataSource dataSource) {
+		if (dataSource instanceof HikariDataSource) {
+			HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+			return pool == null ? 0 : pool.getActiveConnections();
+		}
+		return 0;
+	}
+
+	private static void closeQuietly(DataSource dataSource) {
+		if (dataSource instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) dataSource).close();
+			} catch (Exception e) {
+				LOG.warn("Could not close data source", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.devsuperior.dscatalog.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * Com dscatalog.datasource.replicas.enabled=true o DataSource da aplicação
+ * passa a ser o roteador: spring.datasource é o primário e cada url de
+ * dscatalog.datasource.replicas.urls vira um pool Hikari de réplica, com o
+ * mesmo usuário e senha salvo configuração própria.
+ *
+ * O proxy é o único DataSource do contexto: um segundo bean DataSource (o
+ * pool primário ou o próprio roteador) faz o DataSourceInitializerInvoker do
+ * Boot pedir o DataSource @Primary enquanto ele ainda está sendo criado. O
+ * roteador é alcançado com unwrap(ReadWriteRoutingDataSource.class), é dono
+ * dos pools e os fecha junto com o proxy; cada pool é registrado à mão nas
+ * métricas do Hikari.
+ * */
+@Configuration
+@ConditionalOnProperty(name = "dscatalog.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${dscatalog.datasource.replicas.urls}")
+	private String[] replicaUrls;
+
+	@Value("${dscatalog.datasource.replicas.username:${spring.datasource.username:}}")
+	private String replicaUsername;
+
+	@Value("${dscatalog.datasource.replicas.password:${spring.datasource.password:}}")
+	private String replicaPassword;
+
+	@Value("${dscatalog.datasource.replicas.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}")
+	private int replicaPoolSize;
+
+	@Value("${dscatalog.datasource.replicas.strategy:round-robin}")
+	private ReadWriteRoutingDataSource.Strategy strategy;
+
+	@Value("${dscatalog.datasource.replicas.sticky-window:0s}")
+	private Duration stickyWindow;
+
+	@Value("${dscatalog.datasource.replicas.health-check-interval:5s}")
+	private Duration healthCheckInterval;
+
+	@Value("${dscatalog.datasource.replicas.health-check-timeout:1s}")
+	private Duration healthCheckTimeout;
+
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+		MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+
+		HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		if (primary.getPoolName() == null) {
+			primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+		}
+		primary.setMetricsTrackerFactory(metrics);
+
+		List<DataSource> replicas = new ArrayList<>();
+		for (int i = 0; i < replicaUrls.length; i++) {
+			HikariDataSource replica = new HikariDataSource();
+			replica.setPoolName("replica-" + (i + 1));
+			replica.setJdbcUrl(replicaUrls[i].trim());
+			replica.setUsername(replicaUsername);
+			replica.setPassword(replicaPassword);
+			replica.setMaximumPoolSize(replicaPoolSize);
+			replica.setReadOnly(true);
+			replica.setMetricsTrackerFactory(metrics);
+			replicas.add(replica);
+		}
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, strategy, stickyWindow);
+		routing.startHealthChecks(healthCheckInterval, healthCheckTimeout);
+		return new RoutingDataSourceProxy(routing);
+	}
+
+	static class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+		RoutingDataSourceProxy(ReadWriteRoutingDataSource routing) {
+			super(routing);
+		}
+
+		@Override
+		public void close() {
+			((ReadWriteRoutingDataSource) obtainTargetDataSource()).close();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/*
+ * Modo opcional (dscatalog.virtual-threads.enabled=true, Java 21 - perfil
+ * virtual-threads do pom): cada requisição do Tomcat e cada tarefa @Async
+ * roda em uma virtual thread. O acesso ao banco continua limitado ao
+ * tamanho do pool de conexões pelo AsyncReads.
+ * */
+@Configuration
+@ConditionalOnProperty(name = "dscatalog.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+	// Virtual threads são daemon e não prendem threads de plataforma: não há pool a encerrar.
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+		return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newExecutor("http-vt-"));
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(VirtualThreads.newExecutor("task-vt-"));
+	}
+}
@@ -0,0 +1,40 @@
+package com.devsuperior.dscatalog.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/*
+ * Acesso às virtual threads por reflexão: o código continua compilando em
+ * Java 11 e o modo só pode ser ligado quando a JVM é 21 ou superior.
+ * */
+public final class VirtualThreads {
+
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		return Runtime.version().feature() >= 21;
+	}
+
+	/*
+	 * Equivale a Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 1).factory()).
+	 * */
+	public static ExecutorService newExecutor(String prefix) {
+		if (!isSupported()) {
+			throw new IllegalStateException("Virtual threads require Java 21, running on " + Runtime.version());
+		}
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+			ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+
+			Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+			return (ExecutorService) perTask.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Could not create virtual thread executor", e);
+		}
+	}
+}
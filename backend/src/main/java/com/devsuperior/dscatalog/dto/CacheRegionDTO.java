@@ -0,0 +1,44 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class CacheRegionDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private long hitCount;
+	private long missCount;
+	private long putCount;
+
+	public CacheRegionDTO() {
+	}
+
+	public CacheRegionDTO(String name, long hitCount, long missCount, long putCount) {
+		this.name = name;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.putCount = putCount;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	public long getMissCount() {
+		return missCount;
+	}
+
+	public long getPutCount() {
+		return putCount;
+	}
+
+	public double getHitRatio() {
+		long requests = hitCount + missCount;
+		return requests == 0 ? 0.0 : (double) hitCount / requests;
+	}
+}
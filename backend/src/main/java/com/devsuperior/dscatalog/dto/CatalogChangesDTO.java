@@ -0,0 +1,52 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Página da sincronização incremental: o que mudou depois do watermark
+ * recebido e o watermark a ser enviado na próxima chamada.
+ * */
+public class CatalogChangesDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<ProductDTO> products = new ArrayList<>();
+	private List<CategoryDTO> categories = new ArrayList<>();
+	private List<TombstoneDTO> deleted = new ArrayList<>();
+	private boolean hasMore;
+	private String watermark;
+
+	public CatalogChangesDTO() {
+	}
+
+	public CatalogChangesDTO(List<ProductDTO> products, List<CategoryDTO> categories, List<TombstoneDTO> deleted,
+			boolean hasMore, String watermark) {
+		this.products = products;
+		this.categories = categories;
+		this.deleted = deleted;
+		this.hasMore = hasMore;
+		this.watermark = watermark;
+	}
+
+	public List<ProductDTO> getProducts() {
+		return products;
+	}
+
+	public List<CategoryDTO> getCategories() {
+		return categories;
+	}
+
+	public List<TombstoneDTO> getDeleted() {
+		return deleted;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public String getWatermark() {
+		return watermark;
+	}
+}
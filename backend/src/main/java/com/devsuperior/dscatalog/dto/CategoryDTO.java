@@ -1,6 +1,7 @@
 package com.devsuperior.dscatalog.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 import com.devsuperior.dscatalog.entities.Category;
 
@@ -10,6 +11,8 @@ public class CategoryDTO implements Serializable{
 
 	private Long id;
 	private String name;
+	private Long version;
+	private Instant updatedAt;
 	
 	public CategoryDTO() {
 		
@@ -18,6 +21,8 @@ public class CategoryDTO implements Serializable{
 	public CategoryDTO(Category entity) {
 		this.id = entity.getId();
 		this.name = entity.getName();
+		this.version = entity.getVersion();
+		this.updatedAt = entity.getUpdateAt();
 	}
 
 
@@ -34,6 +39,18 @@ public class CategoryDTO implements Serializable{
 	public void setName(String name) {
 		this.name = name;
 	}
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
 	
 	
 }
@@ -0,0 +1,49 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Página no estilo Slice para a paginação por cursor:
+ * não possui total de elementos, apenas o cursor da próxima página.
+ * */
+public class CursorPageDTO<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private List<T> content = new ArrayList<>();
+	private Integer size;
+	private boolean hasNext;
+	private String nextCursor;
+	
+	public CursorPageDTO() {
+	}
+	
+	public CursorPageDTO(List<T> content, Integer size, String nextCursor) {
+		this.content = content;
+		this.size = size;
+		this.hasNext = nextCursor != null;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public Integer getNumberOfElements() {
+		return content.size();
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+}
@@ -0,0 +1,27 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+public class ImportErrorDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long row;
+	private String message;
+
+	public ImportErrorDTO() {
+	}
+
+	public ImportErrorDTO(Long row, String message) {
+		this.row = row;
+		this.message = message;
+	}
+
+	public Long getRow() {
+		return row;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
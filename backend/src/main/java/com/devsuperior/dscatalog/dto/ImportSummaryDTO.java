@@ -0,0 +1,52 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Resultado de uma importação em lote. Apenas os primeiros erros são
+ * detalhados; failed sempre traz o total de linhas rejeitadas.
+ * */
+public class ImportSummaryDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MAX_REPORTED_ERRORS = 1000;
+
+	private long received;
+	private long imported;
+	private long failed;
+	private List<ImportErrorDTO> errors = new ArrayList<>();
+
+	public void addReceived() {
+		received++;
+	}
+
+	public void addImported(long count) {
+		imported += count;
+	}
+
+	public void addError(long row, String message) {
+		failed++;
+		if (errors.size() < MAX_REPORTED_ERRORS) {
+			errors.add(new ImportErrorDTO(row, message));
+		}
+	}
+
+	public long getReceived() {
+		return received;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public List<ImportErrorDTO> getErrors() {
+		return errors;
+	}
+}
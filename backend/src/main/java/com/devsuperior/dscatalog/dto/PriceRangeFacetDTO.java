@@ -0,0 +1,36 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+/*
+ * Faixa de preço [min, max); max nulo indica a última faixa, sem limite superior.
+ * */
+public class PriceRangeFacetDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Double min;
+	private Double max;
+	private Long count;
+
+	public PriceRangeFacetDTO() {
+	}
+
+	public PriceRangeFacetDTO(Double min, Double max, Long count) {
+		this.min = min;
+		this.max = max;
+		this.count = count;
+	}
+
+	public Double getMin() {
+		return min;
+	}
+
+	public Double getMax() {
+		return max;
+	}
+
+	public Long getCount() {
+		return count;
+	}
+}
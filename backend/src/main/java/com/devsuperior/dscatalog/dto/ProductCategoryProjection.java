@@ -0,0 +1,13 @@
+package com.devsuperior.dscatalog.dto;
+
+/*
+ * Linha da tabela de junção produto-categoria, já com o nome da categoria.
+ * */
+public interface ProductCategoryProjection {
+
+	Long getProductId();
+
+	Long getCategoryId();
+
+	String getCategoryName();
+}
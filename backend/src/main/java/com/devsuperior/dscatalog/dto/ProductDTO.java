@@ -18,6 +18,8 @@ public class ProductDTO implements Serializable{
 
 	private static final long serialVersionUID = 1L;
 	private Long id;
+	private Long version;
+	private Instant updatedAt;
 	
 	@Size(min=5, max = 60, message="Deve ter entre 5 e 60 caracteres")
 	@NotBlank(message="Campo obrigatório")
@@ -54,6 +56,8 @@ public class ProductDTO implements Serializable{
 		this.price = entity.getPrice();
 		this.imgUrl = entity.getImgUrl();
 		this.date = entity.getDate();
+		this.version = entity.getVersion();
+		this.updatedAt = entity.getUpdatedAt();
 	}
 	
 	public ProductDTO(Product entity, Set<Category> categories) {
@@ -68,6 +72,18 @@ public class ProductDTO implements Serializable{
 	public void setId(Long id) {
 		this.id = id;
 	}
+	public Long getVersion() {
+		return version;
+	}
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
 	public String getName() {
 		return name;
 	}
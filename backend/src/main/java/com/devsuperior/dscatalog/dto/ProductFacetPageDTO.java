@@ -0,0 +1,34 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/*
+ * Página de produtos filtrados acompanhada das contagens por categoria e
+ * por faixa de preço. Cada faceta ignora o próprio filtro, para que o
+ * cliente saiba quantos produtos teria ao trocar de categoria ou de faixa.
+ * */
+public class ProductFacetPageDTO<T> extends PageImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final List<CategoryFacetDTO> categoryFacets;
+	private final List<PriceRangeFacetDTO> priceFacets;
+
+	public ProductFacetPageDTO(List<T> content, Pageable pageable, long total,
+			List<CategoryFacetDTO> categoryFacets, List<PriceRangeFacetDTO> priceFacets) {
+		super(content, pageable, total);
+		this.categoryFacets = categoryFacets;
+		this.priceFacets = priceFacets;
+	}
+
+	public List<CategoryFacetDTO> getCategoryFacets() {
+		return categoryFacets;
+	}
+
+	public List<PriceRangeFacetDTO> getPriceFacets() {
+		return priceFacets;
+	}
+}
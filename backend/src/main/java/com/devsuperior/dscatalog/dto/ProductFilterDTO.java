@@ -0,0 +1,62 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+/*
+ * Filtros opcionais da listagem de produtos; campos nulos são ignorados.
+ * */
+public class ProductFilterDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long categoryId;
+	private Double minPrice;
+	private Double maxPrice;
+	private String name;
+
+	public ProductFilterDTO() {
+	}
+
+	public ProductFilterDTO(Long categoryId, Double minPrice, Double maxPrice, String name) {
+		this.categoryId = categoryId;
+		this.minPrice = minPrice;
+		this.maxPrice = maxPrice;
+		this.name = (name == null || name.isBlank()) ? null : name.trim();
+	}
+
+	public boolean isEmpty() {
+		return categoryId == null && minPrice == null && maxPrice == null && name == null;
+	}
+
+	public Long getCategoryId() {
+		return categoryId;
+	}
+
+	public void setCategoryId(Long categoryId) {
+		this.categoryId = categoryId;
+	}
+
+	public Double getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(Double minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public Double getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(Double maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
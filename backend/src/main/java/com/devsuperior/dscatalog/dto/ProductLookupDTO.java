@@ -0,0 +1,36 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+/*
+ * Uma posição da busca em lote: o id pedido e o produto, ou found=false.
+ * */
+public class ProductLookupDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private boolean found;
+	private ProductDTO product;
+
+	public ProductLookupDTO() {
+	}
+
+	public ProductLookupDTO(Long id, ProductDTO product) {
+		this.id = id;
+		this.found = product != null;
+		this.product = product;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public boolean isFound() {
+		return found;
+	}
+
+	public ProductDTO getProduct() {
+		return product;
+	}
+}
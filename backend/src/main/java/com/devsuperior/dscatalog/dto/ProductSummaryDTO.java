@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Visão resumida para listagens: sem a descrição (TEXT), montada por
+ * projeção de construtor, sem carregar entidades no contexto de persistência.
+ * */
+public class ProductSummaryDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private String name;
+	private Double price;
+	private String imgUrl;
+	private Instant date;
+
+	private List<CategoryDTO> categories = new ArrayList<>();
+
+	public ProductSummaryDTO() {
+	}
+
+	public ProductSummaryDTO(Long id, String name, Double price, String imgUrl, Instant date) {
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.imgUrl = imgUrl;
+		this.date = date;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public String getImgUrl() {
+		return imgUrl;
+	}
+
+	public Instant getDate() {
+		return date;
+	}
+
+	public List<CategoryDTO> getCategories() {
+		return categories;
+	}
+}
@@ -0,0 +1,13 @@
+package com.devsuperior.dscatalog.dto;
+
+/*
+ * Projeção apenas com os campos textuais usados pelo índice de busca.
+ * */
+public interface ProductTextProjection {
+
+	Long getId();
+
+	String getName();
+
+	String getDescription();
+}
@@ -0,0 +1,17 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.time.Instant;
+
+/*
+ * Versão do produto e das suas categorias, que também aparecem no ProductDTO.
+ * */
+public interface ProductVersionProjection {
+
+	Long getVersion();
+
+	Instant getUpdatedAt();
+
+	Long getCategoriesVersion();
+
+	Instant getCategoriesUpdatedAt();
+}
@@ -0,0 +1,75 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * Validadores HTTP de um recurso: ETag forte e Last-Modified.
+ * */
+public class ResourceVersionDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String eTag;
+	private final Instant lastModified;
+
+	public ResourceVersionDTO(String tag, Instant lastModified) {
+		this.eTag = "\"" + tag + "\"";
+		this.lastModified = lastModified;
+	}
+
+	/*
+	 * Validadores calculados sobre o DTO que vai no corpo, e não sobre uma
+	 * leitura separada do banco: ETag e corpo nunca divergem, mesmo enquanto
+	 * o cache ainda guarda a versão anterior. A versão do produto mais a soma
+	 * das versões das categorias (renomear uma categoria muda o DTO).
+	 * */
+	public static ResourceVersionDTO of(ProductDTO dto) {
+		long categoriesVersion = 0L;
+		Instant lastModified = dto.getUpdatedAt();
+		for (CategoryDTO category : dto.getCategories()) {
+			categoriesVersion += category.getVersion() == null ? 0L : category.getVersion();
+			if (category.getUpdatedAt() != null && (lastModified == null || category.getUpdatedAt().isAfter(lastModified))) {
+				lastModified = category.getUpdatedAt();
+			}
+		}
+		return new ResourceVersionDTO(dto.getVersion() + "." + categoriesVersion, lastModified);
+	}
+
+	public static ResourceVersionDTO of(CategoryDTO dto) {
+		return new ResourceVersionDTO(String.valueOf(dto.getVersion()), dto.getUpdatedAt());
+	}
+
+	/*
+	 * Se o If-None-Match recebido já traz esta tag (comparação fraca, como a
+	 * do Spring). Serve só para pular a consulta: quem responde 304 continua
+	 * sendo o HttpEntityMethodProcessor, a partir do ETag do ResponseEntity.
+	 * */
+	public boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			if (weak(candidate.trim()).equals(weak(eTag))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public String getETag() {
+		return eTag;
+	}
+
+	public Instant getLastModified() {
+		return lastModified;
+	}
+
+	public long getLastModifiedMillis() {
+		return lastModified == null ? -1L : lastModified.toEpochMilli();
+	}
+
+	private static String weak(String tag) {
+		return tag.startsWith("W/") ? tag.substring(2) : tag;
+	}
+}
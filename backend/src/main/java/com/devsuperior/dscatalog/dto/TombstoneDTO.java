@@ -0,0 +1,40 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.devsuperior.dscatalog.entities.Tombstone;
+
+public class TombstoneDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String type;
+	private Long id;
+	private Instant deletedAt;
+
+	public TombstoneDTO() {
+	}
+
+	public TombstoneDTO(String type, Long id, Instant deletedAt) {
+		this.type = type;
+		this.id = id;
+		this.deletedAt = deletedAt;
+	}
+
+	public TombstoneDTO(Tombstone entity) {
+		this(entity.getEntityType(), entity.getEntityId(), entity.getDeletedAt());
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+}
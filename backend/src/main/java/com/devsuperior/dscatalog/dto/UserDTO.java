@@ -1,6 +1,7 @@
 package com.devsuperior.dscatalog.dto;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -14,6 +15,7 @@ public class UserDTO implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	private Long id;
+	private Long version;
 	
 	@NotEmpty(message = "Campo obrigatório")
 	private String firstName;
@@ -40,11 +42,18 @@ public class UserDTO implements Serializable {
 		this.firstName = user.getFirstName();
 		this.lastName = user.getLastName();
 		this.email = user.getEmail();
+		this.version = user.getVersion();
 		
 		this.roles.clear();
 		user.getRoles().forEach(role -> this.roles.add(new RoleDTO(role)));
 	}
 	
+	public UserDTO(User user, Collection<RoleDTO> roles) {
+		this(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail());
+		this.version = user.getVersion();
+		this.roles.addAll(roles);
+	}
+	
 	public Long getId() {
 		return id;
 	}
@@ -53,6 +62,14 @@ public class UserDTO implements Serializable {
 		this.id = id;
 	}
 	
+	public Long getVersion() {
+		return version;
+	}
+	
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+	
 	public String getFirstName() {
 		return firstName;
 	}
@@ -0,0 +1,11 @@
+package com.devsuperior.dscatalog.dto;
+
+/*
+ * Linha da tabela de junção usuário-papel.
+ * */
+public interface UserRoleProjection {
+
+	Long getUserId();
+
+	Long getRoleId();
+}
@@ -0,0 +1,51 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/*
+ * Linha única com a revisão global do catálogo. Não entra no cache de
+ * segundo nível: todas as instâncias precisam enxergar as escritas umas
+ * das outras.
+ * */
+@Entity
+@Table(name = "tb_catalog_revision")
+public class CatalogRevision implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final Long ID = 1L;
+
+	@Id
+	private Long id;
+	private Long revision;
+
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant updatedAt;
+
+	public CatalogRevision() {
+	}
+
+	public CatalogRevision(Long id, Long revision, Instant updatedAt) {
+		this.id = id;
+		this.revision = revision;
+		this.updatedAt = updatedAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getRevision() {
+		return revision;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+}
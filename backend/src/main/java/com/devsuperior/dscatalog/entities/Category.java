@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
@@ -11,13 +12,22 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
-@Table(name = "tb_category")
+@Table(name = "tb_category", indexes = {
+        @Index(name = "idx_category_updated_at_id", columnList = "updatedAt, id")
+})
+/* Mudam pouco: a alteração só invalida a entrada, sem o lock do READ_WRITE. */
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "category")
 public class Category implements Serializable {
 
     /**
@@ -37,6 +47,9 @@ public class Category implements Serializable {
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant updatedAt;
 
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "categories")
     private Set<Product> products = new HashSet<>();
 
@@ -73,14 +86,21 @@ public class Category implements Serializable {
         return updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    // updatedAt também é preenchido na criação: a sincronização incremental percorre (updated_at, id).
+    // Em microssegundos, a precisão da coluna: o watermark tem que bater com o valor gravado.
     @PrePersist
     public void prePersist() {
-        createdAt = Instant.now();
+        createdAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        updatedAt = createdAt;
     }
 
     @PreUpdate
     public void preUpdate() {
-        updatedAt = Instant.now();
+        updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     public Set<Product> getProducts() {
@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -10,20 +11,43 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = {
+		@Index(name = "idx_product_name_id", columnList = "name, id"),
+		@Index(name = "idx_product_date_id", columnList = "date, id"),
+		@Index(name = "idx_product_updated_at_id", columnList = "updatedAt, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 public class Product implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 	
+	/*
+	 * Sequência com otimizador pooled-lo: o Hibernate reserva 50 ids por
+	 * consulta à sequência e pode agrupar os INSERTs em lote (IDENTITY impede).
+	 * */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+	@GenericGenerator(name = "product_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "tb_product_seq"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo")
+	})
 	private Long id;
 	private String name;
 	
@@ -35,7 +59,18 @@ public class Product implements Serializable {
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant date;
 	
+	/*
+	 * Incrementada pelo Hibernate a cada alteração, inclusive das
+	 * categorias; serve de base para o ETag do produto.
+	 * */
+	@Version
+	private Long version;
+	
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant updatedAt;
+	
 	@ManyToMany
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product.categories")
 	@JoinTable(name = "tb_product_category",
 			joinColumns = @JoinColumn(name="product_id"),
 			inverseJoinColumns = @JoinColumn(name="category_id")
@@ -105,8 +140,23 @@ public class Product implements Serializable {
 		this.date = date;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+	
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
 	public Set<Category> getCategories() {
 		return categories;
 	}
 	
+	// Na precisão da coluna (microssegundos), para o watermark da sincronização bater com o valor gravado.
+	@PrePersist
+	@PreUpdate
+	public void preUpdate() {
+		updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+	}
+	
 }
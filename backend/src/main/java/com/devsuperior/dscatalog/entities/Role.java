@@ -8,8 +8,13 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "tb_role")
+/* Papéis só mudam por migração; a aplicação nunca os altera. */
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "role")
 public class Role implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -0,0 +1,93 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.Table;
+
+/*
+ * Registro de exclusão de um produto ou categoria, para que a sincronização
+ * incremental consiga avisar os clientes do que deixou de existir.
+ * */
+@Entity
+@Table(name = "tb_tombstone", indexes = {
+		@Index(name = "idx_tombstone_deleted_at_id", columnList = "deletedAt, id")
+})
+public class Tombstone implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String PRODUCT = "product";
+	public static final String CATEGORY = "category";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private String entityType;
+	private Long entityId;
+
+	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant deletedAt;
+
+	public Tombstone() {
+	}
+
+	public Tombstone(String entityType, Long entityId) {
+		this.entityType = entityType;
+		this.entityId = entityId;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getEntityType() {
+		return entityType;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+
+	@PrePersist
+	public void prePersist() {
+		deletedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Tombstone other = (Tombstone) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		return true;
+	}
+}
@@ -6,7 +6,6 @@ import java.util.Set;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
@@ -14,6 +13,10 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "tb_user")
@@ -29,7 +32,11 @@ public class User implements Serializable {
 	private String email;
 	private String password;
 	
-	@ManyToMany(fetch = FetchType.EAGER)
+	@Version
+	private Long version;
+	
+	@ManyToMany
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
 	@JoinTable(name = "tb_user_role",
 			joinColumns = @JoinColumn(name="user_id"),
 			inverseJoinColumns = @JoinColumn(name="role_id")
@@ -55,6 +62,10 @@ public class User implements Serializable {
 		return id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	public void setId(Long id) {
 		this.id = id;
 	}
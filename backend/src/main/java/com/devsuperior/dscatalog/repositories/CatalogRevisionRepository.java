@@ -0,0 +1,31 @@
+/**
+ *
+ */
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.entities.CatalogRevision;
+
+/**
+ * Representa a camada de acesso a dados.
+ *
+ */
+@Repository
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, Long> {
+
+	/*
+	 * flushAutomatically grava antes as alterações pendentes da transação,
+	 * assim a linha da revisão é sempre a última a ser travada (sem deadlock
+	 * entre escritores que travam produtos e categorias em ordens diferentes).
+	 * */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE CatalogRevision obj SET obj.revision = obj.revision + 1, obj.updatedAt = :now WHERE obj.id = :id")
+	int increment(@Param("id") Long id, @Param("now") Instant now);
+}
@@ -3,7 +3,17 @@
  */
 package com.devsuperior.dscatalog.repositories;
 
+import java.time.Instant;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.Category;
@@ -15,4 +25,13 @@ import com.devsuperior.dscatalog.entities.Category;
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
+	// Página e count ficam no cache de consultas do Hibernate.
+	@Override
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	Page<Category> findAll(Pageable pageable);
+
+	@Query("SELECT obj FROM Category obj "
+			+ "WHERE (obj.updatedAt > :at OR (obj.updatedAt = :at AND obj.id > :id)) AND obj.updatedAt <= :until "
+			+ "ORDER BY obj.updatedAt, obj.id")
+	List<Category> findChanges(@Param("at") Instant at, @Param("id") Long id, @Param("until") Instant until, Pageable pageable);
 }
@@ -3,9 +3,26 @@
  */
 package com.devsuperior.dscatalog.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.devsuperior.dscatalog.dto.ProductCategoryProjection;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.dto.ProductTextProjection;
+import com.devsuperior.dscatalog.dto.ProductVersionProjection;
 import com.devsuperior.dscatalog.entities.Product;
 
 /**
@@ -13,6 +30,86 @@ import com.devsuperior.dscatalog.entities.Product;
  *
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+	/*
+	 * Busca em duas fases: primeiro a página de ids (com count), depois os
+	 * produtos da página junto com as categorias em uma única consulta.
+	 * */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query(value = "SELECT obj.id FROM Product obj",
+			countQuery = "SELECT COUNT(obj) FROM Product obj")
+	Page<Long> findPagedIds(Pageable pageable);
+
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	@Query("SELECT DISTINCT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj.id IN :ids")
+	List<Product> findWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT new com.devsuperior.dscatalog.dto.ProductSummaryDTO(obj.id, obj.name, obj.price, obj.imgUrl, obj.date) "
+			+ "FROM Product obj WHERE obj.id IN :ids")
+	List<ProductSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+	@Query("SELECT obj.id AS id, obj.name AS name, obj.description AS description FROM Product obj")
+	Stream<ProductTextProjection> streamAllText();
+
+	/*
+	 * Cursor somente leitura para a exportação; os produtos não guardam
+	 * snapshot para dirty checking.
+	 * */
+	@QueryHints({
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+		@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+	})
+	@Query("SELECT obj FROM Product obj ORDER BY obj.id")
+	Stream<Product> streamAll();
+
+	@Query("SELECT obj.id AS productId, cat.id AS categoryId, cat.name AS categoryName "
+			+ "FROM Product obj JOIN obj.categories cat WHERE obj.id IN :ids")
+	List<ProductCategoryProjection> findCategoriesByProductIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT obj.version AS version, obj.updatedAt AS updatedAt, "
+			+ "COALESCE(SUM(cat.version), 0) AS categoriesVersion, MAX(cat.updatedAt) AS categoriesUpdatedAt "
+			+ "FROM Product obj LEFT JOIN obj.categories cat WHERE obj.id = :id "
+			+ "GROUP BY obj.id, obj.version, obj.updatedAt")
+	Optional<ProductVersionProjection> findVersionById(@Param("id") Long id);
+
+	@Query("SELECT obj.id FROM Product obj JOIN obj.categories cat WHERE cat.id = :categoryId")
+	List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+	/*
+	 * Paginação por cursor (keyset): a próxima página começa depois do último
+	 * (name, id) / (date, id) lido, sem OFFSET e sem count(*).
+	 * */
+	@Query("SELECT obj.id FROM Product obj ORDER BY obj.name, obj.id")
+	List<Long> findFirstIdsOrderByName(Pageable pageable);
+
+	@Query("SELECT obj.id FROM Product obj "
+			+ "WHERE obj.name > :name OR (obj.name = :name AND obj.id > :id) "
+			+ "ORDER BY obj.name, obj.id")
+	List<Long> findNextIdsOrderByName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+	/*
+	 * Produtos sem data vêm por último (NULLS LAST): depois de uma data, a
+	 * continuação inclui todos os sem data; depois de um sem data, só o id avança.
+	 * */
+	@Query("SELECT obj.id FROM Product obj ORDER BY obj.date ASC NULLS LAST, obj.id")
+	List<Long> findFirstIdsOrderByDate(Pageable pageable);
+
+	@Query("SELECT obj.id FROM Product obj "
+			+ "WHERE obj.date > :date OR (obj.date = :date AND obj.id > :id) OR obj.date IS NULL "
+			+ "ORDER BY obj.date ASC NULLS LAST, obj.id")
+	List<Long> findNextIdsOrderByDate(@Param("date") Instant date, @Param("id") Long id, Pageable pageable);
+
+	@Query("SELECT obj.id FROM Product obj WHERE obj.date IS NULL AND obj.id > :id ORDER BY obj.id")
+	List<Long> findNextIdsWithoutDate(@Param("id") Long id, Pageable pageable);
 
+	/*
+	 * Sincronização incremental: keyset sobre (updated_at, id), limitado
+	 * por :until para não entregar alterações que ainda podem mudar de ordem.
+	 * */
+	@Query("SELECT obj.id FROM Product obj "
+			+ "WHERE (obj.updatedAt > :at OR (obj.updatedAt = :at AND obj.id > :id)) AND obj.updatedAt <= :until "
+			+ "ORDER BY obj.updatedAt, obj.id")
+	List<Long> findChangedIds(@Param("at") Instant at, @Param("id") Long id, @Param("until") Instant until, Pageable pageable);
 }
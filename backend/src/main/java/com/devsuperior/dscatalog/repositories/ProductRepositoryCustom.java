@@ -0,0 +1,28 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.ProductFilterDTO;
+
+/*
+ * Consultas com filtros dinâmicos, implementadas em ProductRepositoryImpl.
+ * */
+public interface ProductRepositoryCustom {
+
+	Page<Long> findFilteredIds(ProductFilterDTO filter, Pageable pageable);
+
+	/*
+	 * Contagem por categoria em um único GROUP BY, ignorando o filtro de categoria.
+	 * */
+	List<CategoryFacetDTO> countByCategory(ProductFilterDTO filter);
+
+	/*
+	 * Contagem por faixa [bounds[i], bounds[i + 1]) em uma única passada,
+	 * ignorando o filtro de preço. A última faixa não tem limite superior.
+	 * */
+	long[] countByPriceRange(ProductFilterDTO filter, double[] bounds);
+}
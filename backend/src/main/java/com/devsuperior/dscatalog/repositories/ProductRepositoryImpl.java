@@ -0,0 +1,158 @@
+package com.devsuperior.dscatalog.repositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.ProductFilterDTO;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+	private static final Map<String, String> SORTABLE = Map.of(
+			"id", "obj.id",
+			"name", "obj.name",
+			"price", "obj.price",
+			"date", "obj.date");
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Page<Long> findFilteredIds(ProductFilterDTO filter, Pageable pageable) {
+		Where where = new Where(filter, true, true);
+
+		TypedQuery<Long> query = entityManager.createQuery(
+				"SELECT obj.id FROM Product obj" + where + orderBy(pageable.getSort()), Long.class);
+		where.bind(query);
+		if (pageable.isPaged()) {
+			query.setFirstResult((int) pageable.getOffset());
+			query.setMaxResults(pageable.getPageSize());
+		}
+
+		return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> {
+			TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(obj) FROM Product obj" + where, Long.class);
+			where.bind(count);
+			return count.getSingleResult();
+		});
+	}
+
+	@Override
+	public List<CategoryFacetDTO> countByCategory(ProductFilterDTO filter) {
+		Where where = new Where(filter, false, true);
+
+		TypedQuery<CategoryFacetDTO> query = entityManager.createQuery(
+				"SELECT new com.devsuperior.dscatalog.dto.CategoryFacetDTO(cat.id, cat.name, COUNT(obj)) "
+				+ "FROM Product obj JOIN obj.categories cat" + where
+				+ " GROUP BY cat.id, cat.name ORDER BY cat.name", CategoryFacetDTO.class);
+		where.bind(query);
+		return query.getResultList();
+	}
+
+	@Override
+	public long[] countByPriceRange(ProductFilterDTO filter, double[] bounds) {
+		if (bounds.length == 0) {
+			return new long[0];
+		}
+		Where where = new Where(filter, true, false);
+
+		List<String> sums = new ArrayList<>();
+		for (int i = 0; i < bounds.length; i++) {
+			String range = "obj.price >= :bound" + i;
+			if (i + 1 < bounds.length) {
+				range += " AND obj.price < :bound" + (i + 1);
+			}
+			sums.add("SUM(CASE WHEN " + range + " THEN 1 ELSE 0 END)");
+		}
+
+		Query query = entityManager.createQuery(
+				"SELECT " + String.join(", ", sums) + " FROM Product obj" + where);
+		where.bind(query);
+		for (int i = 0; i < bounds.length; i++) {
+			query.setParameter("bound" + i, bounds[i]);
+		}
+
+		// Com uma única coluna o JPA devolve o valor, não um array.
+		Object result = query.getSingleResult();
+		Object[] row = bounds.length == 1 ? new Object[] { result } : (Object[]) result;
+
+		long[] counts = new long[bounds.length];
+		for (int i = 0; i < row.length; i++) {
+			counts[i] = row[i] == null ? 0L : ((Number) row[i]).longValue();
+		}
+		return counts;
+	}
+
+	private static String orderBy(Sort sort) {
+		if (sort.isUnsorted()) {
+			return " ORDER BY obj.id";
+		}
+		String columns = sort.stream().map(order -> {
+			String path = SORTABLE.get(order.getProperty());
+			if (path == null) {
+				throw new InvalidRequestException("Invalid sort property " + order.getProperty());
+			}
+			return path + (order.isAscending() ? " ASC" : " DESC");
+		}).collect(Collectors.joining(", "));
+
+		// O id desempata a ordenação, mantendo as páginas estáveis.
+		return " ORDER BY " + columns + ", obj.id";
+	}
+
+	/*
+	 * Monta a cláusula WHERE a partir dos filtros informados; as facetas
+	 * pedem a mesma cláusula sem o filtro da própria dimensão.
+	 * */
+	private static final class Where {
+
+		private final List<String> conditions = new ArrayList<>();
+		private final Map<String, Object> parameters = new HashMap<>();
+
+		private Where(ProductFilterDTO filter, boolean withCategory, boolean withPrice) {
+			if (withCategory && filter.getCategoryId() != null) {
+				conditions.add("EXISTS (SELECT p.id FROM Product p JOIN p.categories c "
+						+ "WHERE p.id = obj.id AND c.id = :categoryId)");
+				parameters.put("categoryId", filter.getCategoryId());
+			}
+			if (withPrice && filter.getMinPrice() != null) {
+				conditions.add("obj.price >= :minPrice");
+				parameters.put("minPrice", filter.getMinPrice());
+			}
+			if (withPrice && filter.getMaxPrice() != null) {
+				conditions.add("obj.price <= :maxPrice");
+				parameters.put("maxPrice", filter.getMaxPrice());
+			}
+			if (filter.getName() != null) {
+				conditions.add("LOWER(obj.name) LIKE :name ESCAPE '\\'");
+				parameters.put("name", "%" + escapeLike(filter.getName().toLowerCase()) + "%");
+			}
+		}
+
+		/* '%' e '_' digitados pelo usuário são texto, não curingas. */
+		private static String escapeLike(String value) {
+			return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+		}
+
+		private void bind(Query query) {
+			parameters.forEach(query::setParameter);
+		}
+
+		@Override
+		public String toString() {
+			return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+		}
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ *
+ */
+package com.devsuperior.dscatalog.repositories;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.entities.Tombstone;
+
+/**
+ * Representa a camada de acesso a dados.
+ *
+ */
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long> {
+
+	@Query("SELECT obj FROM Tombstone obj "
+			+ "WHERE (obj.deletedAt > :at OR (obj.deletedAt = :at AND obj.id > :id)) AND obj.deletedAt <= :until "
+			+ "ORDER BY obj.deletedAt, obj.id")
+	List<Tombstone> findChanges(@Param("at") Instant at, @Param("id") Long id, @Param("until") Instant until, Pageable pageable);
+}
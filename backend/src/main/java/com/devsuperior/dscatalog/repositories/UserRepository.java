@@ -3,9 +3,19 @@
  */
 package com.devsuperior.dscatalog.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.devsuperior.dscatalog.dto.UserRoleProjection;
 import com.devsuperior.dscatalog.entities.User;
 
 /**
@@ -16,4 +26,16 @@ import com.devsuperior.dscatalog.entities.User;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     User findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT obj.email FROM User obj")
+    Stream<String> streamAllEmails();
+
+    /*
+     * Papéis de todos os usuários de uma página em uma única consulta.
+     * */
+    @Query("SELECT obj.id AS userId, role.id AS roleId FROM User obj JOIN obj.roles role WHERE obj.id IN :ids")
+    List<UserRoleProjection> findRoleIdsByUserIdIn(@Param("ids") Collection<Long> ids);
 }
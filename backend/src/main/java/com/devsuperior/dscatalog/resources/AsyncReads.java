@@ -0,0 +1,128 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.config.VirtualThreads;
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+/*
+ * Executa as leituras dos controladores fora das threads do Tomcat, em um
+ * pool do tamanho do pool de conexões: uma consulta lenta ocupa uma thread
+ * deste pool, não uma thread do servidor. Com a fila cheia a requisição é
+ * recusada na hora (503). O tempo limite é configurável por endpoint em
+ * dscatalog.async.timeout.<endpoint>, com dscatalog.async.timeout.default
+ * como padrão. Com dscatalog.async.enabled=false a leitura roda na própria
+ * thread da requisição, como antes.
+ *
+ * O tempo limite só libera o cliente (503): o orTimeout não cancela a
+ * consulta, então a thread do pool e a conexão seguem ocupadas até o banco
+ * responder e o timeout não alivia a carga. Para isso é preciso limitar a
+ * consulta no próprio banco (statement timeout).
+ *
+ * No modo de virtual threads cada leitura ganha a sua virtual thread, mas
+ * no máximo threads leituras usam o banco ao mesmo tempo (semáforo do tamanho do
+ * pool de conexões) e no máximo threads + queue-capacity ficam pendentes.
+ * Assim, mesmo com drivers que fazem synchronized (H2, PostgreSQL < 42.6)
+ * e prendem a carrier thread, nunca há mais carriers presas que conexões.
+ * */
+@Component
+public class AsyncReads {
+
+	private static final String TIMEOUT_PREFIX = "dscatalog.async.timeout.";
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${dscatalog.async.enabled:true}")
+	private boolean enabled;
+
+	@Value("${dscatalog.db-executor.threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+	private int threads;
+
+	@Value("${dscatalog.db-executor.queue-capacity:100}")
+	private int queueCapacity;
+
+	@Value("${dscatalog.async.timeout.default:10s}")
+	private Duration defaultTimeout;
+
+	@Value("${dscatalog.virtual-threads.enabled:false}")
+	private boolean virtualThreads;
+
+	private ExecutorService executor;
+	private Semaphore pending;
+	private Semaphore connections;
+
+	@PostConstruct
+	public void start() {
+		if (virtualThreads) {
+			executor = VirtualThreads.newExecutor("db-read-vt-");
+			pending = new Semaphore(threads + queueCapacity);
+			connections = new Semaphore(threads);
+			return;
+		}
+		AtomicInteger counter = new AtomicInteger();
+		// Sem fila, só é aceita a leitura que encontra uma thread livre.
+		BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				queue, runnable -> {
+					Thread thread = new Thread(runnable, "db-read-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	public <T> CompletableFuture<T> supply(String endpoint, Supplier<T> supplier) {
+		if (!enabled) {
+			return CompletableFuture.completedFuture(supplier.get());
+		}
+		Duration timeout = environment.getProperty(TIMEOUT_PREFIX + endpoint, Duration.class, defaultTimeout);
+		try {
+			return CompletableFuture.supplyAsync(virtualThreads ? limited(supplier) : supplier, executor)
+					.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (RejectedExecutionException e) {
+			throw new ServiceUnavailableException("Too many concurrent reads, try again later");
+		}
+	}
+
+	private <T> Supplier<T> limited(Supplier<T> supplier) {
+		if (!pending.tryAcquire()) {
+			throw new RejectedExecutionException();
+		}
+		return () -> {
+			try {
+				connections.acquireUninterruptibly();
+				try {
+					return supplier.get();
+				} finally {
+					connections.release();
+				}
+			} finally {
+				pending.release();
+			}
+		};
+	}
+}
@@ -0,0 +1,41 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devsuperior.dscatalog.dto.CacheRegionDTO;
+import com.devsuperior.dscatalog.services.CacheAdminService;
+
+@RestController
+@RequestMapping(value = "/admin/cache")
+public class CacheAdminResource {
+
+	@Autowired
+	CacheAdminService cacheAdminService;
+
+	@GetMapping
+	public ResponseEntity<List<CacheRegionDTO>> findAll(){
+		return ResponseEntity.ok().body(cacheAdminService.findAll());
+	}
+
+	@DeleteMapping
+	public ResponseEntity<Void> evictAll(){
+		cacheAdminService.evictAll();
+
+		return ResponseEntity.noContent().build();
+	}
+
+	@DeleteMapping(value = "/{region}")
+	public ResponseEntity<Void> evict(@PathVariable String region){
+		cacheAdminService.evict(region);
+
+		return ResponseEntity.noContent().build();
+	}
+}
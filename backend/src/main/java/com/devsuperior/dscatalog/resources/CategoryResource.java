@@ -1,10 +1,12 @@
 package com.devsuperior.dscatalog.resources;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,12 +14,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
 import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.OptimisticRetry;
 
 /*
  * Representa um Controlador Rest. 
@@ -31,13 +36,25 @@ public class CategoryResource {
 	
 	@Autowired
 	CategoryService categoryService;
+	
+	@Autowired
+	AsyncReads asyncReads;
+	
+	@Autowired
+	OptimisticRetry optimisticRetry;
 		
+	// Versão do catálogo lida no pool, junto com a página; o 304 sai na thread do dispatch.
 	@GetMapping
-	public ResponseEntity<Page<CategoryDTO>> findAllPaged(Pageable pageable){
-				
-		Page<CategoryDTO> list = categoryService.findAllPaged(pageable);
-
-		return ResponseEntity.ok().body(list);
+	public CompletableFuture<ResponseEntity<Page<CategoryDTO>>> findAllPaged(Pageable pageable,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+		
+		return asyncReads.supply("categories.find-all", () -> {
+			ResourceVersionDTO version = categoryService.getCatalogVersion();
+			if (version.matches(ifNoneMatch)) {
+				return ok(version).build();
+			}
+			return ok(version).body(categoryService.findAllPaged(pageable));
+		});
 	}
 	
 	
@@ -48,12 +65,14 @@ public class CategoryResource {
 //		return ResponseEntity.ok().body(list);
 //	}
 	
+	// ETag do próprio DTO devolvido; o 304 é decidido na thread do dispatch.
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id){
-		CategoryDTO dto = categoryService.findById(id);
-		
-		
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<CategoryDTO>> findById(@PathVariable Long id){
+		return asyncReads.supply("categories.find-by-id", () -> {
+			CategoryDTO dto = categoryService.findById(id);
+			
+			return ok(ResourceVersionDTO.of(dto)).body(dto);
+		});
 	}
 	
 	@PostMapping
@@ -72,9 +91,9 @@ public class CategoryResource {
 	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<CategoryDTO> update(@PathVariable Long id, @RequestBody CategoryDTO dto){
-		dto = categoryService.update(id, dto);
+		CategoryDTO result = optimisticRetry.execute(dto.getVersion(), () -> categoryService.update(id, dto));
 		
-		return ResponseEntity.ok().body(dto);
+		return ResponseEntity.ok().body(result);
 	}
 	
 	
@@ -84,4 +103,9 @@ public class CategoryResource {
 		
 		return ResponseEntity.noContent().build();
 	}
+	
+	private static ResponseEntity.BodyBuilder ok(ResourceVersionDTO version) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(version.getETag());
+		return version.getLastModified() == null ? builder : builder.lastModified(version.getLastModified());
+	}
 }
@@ -1,12 +1,17 @@
 package com.devsuperior.dscatalog.resources;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,12 +19,26 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.CatalogChangesDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.ImportSummaryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFilterDTO;
+import com.devsuperior.dscatalog.dto.ProductLookupDTO;
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
+import com.devsuperior.dscatalog.services.ExportFormat;
+import com.devsuperior.dscatalog.services.OptimisticRetry;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductImportService;
 import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.ProductView;
 
 /*
  * Representa um Controlador Rest. 
@@ -33,19 +52,132 @@ public class ProductResource {
 	
 	@Autowired
 	ProductService productService;
+	
+	@Autowired
+	ProductImportService productImportService;
+	
+	@Autowired
+	ProductExportService productExportService;
+	
+	@Autowired
+	AsyncReads asyncReads;
+	
+	@Autowired
+	OptimisticRetry optimisticRetry;
 		
+	/*
+	 * Com algum filtro informado, a resposta inclui as facetas por
+	 * categoria e por faixa de preço (categoryFacets e priceFacets).
+	 * Com view=summary o conteúdo vem sem a descrição (ProductSummaryDTO).
+	 * 
+	 * As listagens usam a versão global do catálogo como ETag. A versão é
+	 * lida no pool de AsyncReads, como as consultas; se o If-None-Match já a
+	 * traz, a página nem é consultada e o ResponseEntity vai sem corpo. O 304
+	 * é decidido na thread do dispatch, como no findById.
+	 * */
 	@GetMapping
-	public ResponseEntity<Page<ProductDTO>> findAllPaged(Pageable pageable){
+	public CompletableFuture<ResponseEntity<Page<?>>> findAllPaged(
+			@RequestParam(value = "view", defaultValue = "full") String view,
+			@RequestParam(value = "categoryId", required = false) Long categoryId,
+			@RequestParam(value = "minPrice", required = false) Double minPrice,
+			@RequestParam(value = "maxPrice", required = false) Double maxPrice,
+			@RequestParam(value = "name", required = false) String name,
+			Pageable pageable, @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
 		
-		Page<ProductDTO> list = productService.findAllPaged(pageable);
-
-		return ResponseEntity.ok().body(list);
+		ProductView productView = ProductView.of(view);
+		
+		ProductFilterDTO filter = new ProductFilterDTO(categoryId, minPrice, maxPrice, name);
+		return asyncReads.supply("products.find-all", () -> {
+			ResourceVersionDTO version = productService.getCatalogVersion();
+			if (version.matches(ifNoneMatch)) {
+				return ok(version).build();
+			}
+			
+			Page<?> list;
+			if (productView == ProductView.SUMMARY) {
+				list = filter.isEmpty() ? productService.findAllSummaries(pageable)
+						: productService.findAllFilteredSummaries(filter, pageable);
+			} else {
+				list = filter.isEmpty() ? productService.findAllPaged(pageable)
+						: productService.findAllFiltered(filter, pageable);
+			}
+			return ok(version).body(list);
+		});
+	}
+	
+	@GetMapping(params = "after")
+	public CompletableFuture<ResponseEntity<CursorPageDTO<ProductDTO>>> findAllByCursor(
+			@RequestParam(value = "after", defaultValue = "") String after,
+			@RequestParam(value = "orderBy", defaultValue = "name") String orderBy,
+			@RequestParam(value = "size", defaultValue = "20") Integer size,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+		
+		return asyncReads.supply("products.cursor", () -> {
+			ResourceVersionDTO version = productService.getCatalogVersion();
+			if (version.matches(ifNoneMatch)) {
+				return ok(version).build();
+			}
+			return ok(version).body(productService.findAllByCursor(after, orderBy, size));
+		});
 	}
 	
+	/*
+	 * Busca em lote (carrinho, recomendações): GET /products?ids=3,1,7
+	 * responde na ordem pedida, com found=false para os ids inexistentes.
+	 * */
+	@GetMapping(params = "ids")
+	public CompletableFuture<ResponseEntity<List<ProductLookupDTO>>> findByIds(@RequestParam(value = "ids") List<Long> ids){
+		return asyncReads.supply("products.find-by-ids", () -> ResponseEntity.ok().body(productService.findByIds(ids)));
+	}
+	
+	/*
+	 * Sincronização incremental: GET /products/changes?since=<watermark>
+	 * devolve apenas o que mudou; sem since, o catálogo inteiro desde o início.
+	 * */
+	@GetMapping(value = "/changes")
+	public CompletableFuture<ResponseEntity<CatalogChangesDTO>> findChanges(
+			@RequestParam(value = "since", defaultValue = "") String since,
+			@RequestParam(value = "size", defaultValue = "100") Integer size){
+		return asyncReads.supply("products.changes", () -> ResponseEntity.ok().body(productService.findChanges(since, size)));
+	}
+	
+	@GetMapping(value = "/search")
+	public CompletableFuture<ResponseEntity<Page<ProductDTO>>> search(@RequestParam(value = "q", defaultValue = "") String q, Pageable pageable,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+		return asyncReads.supply("products.search", () -> {
+			ResourceVersionDTO version = productService.getCatalogVersion();
+			if (version.matches(ifNoneMatch)) {
+				return ok(version).build();
+			}
+			return ok(version).body(productService.search(q, pageable));
+		});
+	}
+	
+	/*
+	 * Catálogo completo em NDJSON ou CSV, escrito em streaming no corpo da resposta.
+	 * */
+	@GetMapping(value = "/export")
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") String format){
+		ExportFormat exportFormat = ExportFormat.of(format);
+		StreamingResponseBody body = out -> productExportService.export(exportFormat, out);
+		
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + exportFormat.getExtension() + "\"")
+				.body(body);
+	}
+	
+	/*
+	 * ETag e Last-Modified saem do próprio DTO devolvido e seguem no
+	 * ResponseEntity; o HttpEntityMethodProcessor decide o 304 na thread do
+	 * dispatch, sem tocar a resposta do servlet a partir do pool.
+	 * */
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> findById(@PathVariable Long id){
-		ProductDTO dto = productService.findById(id);
-		return ResponseEntity.ok().body(dto);
+	public CompletableFuture<ResponseEntity<ProductDTO>> findById(@PathVariable Long id){
+		return asyncReads.supply("products.find-by-id", () -> {
+			ProductDTO dto = productService.findById(id);
+			return ok(ResourceVersionDTO.of(dto)).body(dto);
+		});
 	}
 	
 	@PostMapping
@@ -55,10 +187,19 @@ public class ProductResource {
 		return ResponseEntity.created(uri).body(dto);
 	}
 	
+	/*
+	 * Aceita um array JSON ou NDJSON (um produto por linha), lido em streaming.
+	 * */
+	@PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+	public ResponseEntity<ImportSummaryDTO> bulkInsert(InputStream body){
+		ImportSummaryDTO summary = productImportService.importProducts(body);
+		return ResponseEntity.ok().body(summary);
+	}
+	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<ProductDTO> update(@Valid @PathVariable Long id, @RequestBody ProductDTO dto){
-		dto = productService.update(id, dto);
-		return ResponseEntity.ok().body(dto);
+		ProductDTO result = optimisticRetry.execute(dto.getVersion(), () -> productService.update(id, dto));
+		return ResponseEntity.ok().body(result);
 	}
 	
 	
@@ -67,4 +208,9 @@ public class ProductResource {
 		productService.delete(id);
 		return ResponseEntity.noContent().build();
 	}
+	
+	private static ResponseEntity.BodyBuilder ok(ResourceVersionDTO version) {
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok().eTag(version.getETag());
+		return version.getLastModified() == null ? builder : builder.lastModified(version.getLastModified());
+	}
 }
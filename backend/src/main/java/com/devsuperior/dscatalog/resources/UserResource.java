@@ -1,5 +1,7 @@
 package com.devsuperior.dscatalog.resources;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.services.OptimisticRetry;
 import com.devsuperior.dscatalog.services.UserService;
 
 @RestController
@@ -27,28 +30,36 @@ public class UserResource {
 	@Autowired
 	UserService userService;
 	
+	@Autowired
+	AsyncReads asyncReads;
+	
+	@Autowired
+	OptimisticRetry optimisticRetry;
+	
 	@GetMapping
-	public ResponseEntity<Page<UserDTO>> findAllByPagec(Pageable pageable){
-		Page<UserDTO> page = userService.findAllPaged(pageable);
-		
-		return new ResponseEntity<Page<UserDTO>>(page, HttpStatus.OK);
+	public CompletableFuture<ResponseEntity<Page<UserDTO>>> findAllByPagec(Pageable pageable){
+		return asyncReads.supply("users.find-all",
+				() -> new ResponseEntity<Page<UserDTO>>(userService.findAllPaged(pageable), HttpStatus.OK));
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<UserDTO> findById(@PathVariable Long id) {
-		UserDTO dto = userService.findById(id);
-		return new ResponseEntity<UserDTO>(dto, HttpStatus.OK);
+	public CompletableFuture<ResponseEntity<UserDTO>> findById(@PathVariable Long id) {
+		return asyncReads.supply("users.find-by-id", () -> new ResponseEntity<UserDTO>(userService.findById(id), HttpStatus.OK));
 	}
 	
+	/*
+	 * Resposta assíncrona: a thread do Tomcat é liberada enquanto a senha
+	 * é processada no pool de hashing.
+	 * */
 	@PostMapping
-	public ResponseEntity<UserDTO> insert(@Valid @RequestBody UserInsertDTO dto) {
-		UserDTO responseDTO = userService.insert(dto);
-		return new ResponseEntity<UserDTO>(responseDTO, HttpStatus.CREATED);
+	public CompletableFuture<ResponseEntity<UserDTO>> insert(@Valid @RequestBody UserInsertDTO dto) {
+		return userService.insert(dto)
+				.thenApply(responseDTO -> new ResponseEntity<UserDTO>(responseDTO, HttpStatus.CREATED));
 	}
 	
 	@PutMapping(value = "/{id}")
 	public ResponseEntity<UserDTO> update(@Valid @PathVariable Long id, @RequestBody UserInsertDTO dto) {
-		UserDTO responseDTO = userService.update(id, dto);
+		UserDTO responseDTO = optimisticRetry.execute(dto.getVersion(), () -> userService.update(id, dto));
 		return new ResponseEntity<UserDTO>(responseDTO, HttpStatus.OK);
 	}
 	
@@ -1,9 +1,11 @@
 package com.devsuperior.dscatalog.resources.exceptions;
 
 import java.time.Instant;
+import java.util.concurrent.TimeoutException;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -11,8 +13,12 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
 import com.devsuperior.dscatalog.services.exceptions.DataBaseException;
+import com.devsuperior.dscatalog.services.exceptions.InvalidReferenceException;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
 
 @ControllerAdvice
 public class ResourceExceptionHandler {
@@ -45,6 +51,77 @@ public class ResourceExceptionHandler {
 		return ResponseEntity.status(status).body(err);
 	}
 	
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<StandardError> invalidRequest(InvalidRequestException e, HttpServletRequest request) {
+		
+		HttpStatus status = HttpStatus.BAD_REQUEST;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Bad request");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURL().toString());
+		
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	@ExceptionHandler(InvalidReferenceException.class)
+	public ResponseEntity<ValidationError> invalidReference(InvalidReferenceException e, HttpServletRequest request) {
+		
+		HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+		ValidationError err = new ValidationError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Validation exception");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURL().toString());
+		err.addError(e.getField(), e.getMessage());
+		
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	@ExceptionHandler(ConflictException.class)
+	public ResponseEntity<StandardError> conflict(ConflictException e, HttpServletRequest request) {
+		
+		HttpStatus status = HttpStatus.CONFLICT;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Conflict");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURL().toString());
+		
+		return ResponseEntity.status(status).body(err);
+	}
+	
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<StandardError> serviceUnavailable(ServiceUnavailableException e, HttpServletRequest request) {
+		
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Service unavailable");
+		err.setMessage(e.getMessage());
+		err.setPath(request.getRequestURL().toString());
+		
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+	}
+	
+	@ExceptionHandler(TimeoutException.class)
+	public ResponseEntity<StandardError> timeout(TimeoutException e, HttpServletRequest request) {
+		
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Service unavailable");
+		err.setMessage("Request timed out");
+		err.setPath(request.getRequestURL().toString());
+		
+		return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(err);
+	}
+	
 	@ExceptionHandler(MethodArgumentNotValidException.class)
 	public ResponseEntity<ValidationError> validation(MethodArgumentNotValidException e, HttpServletRequest request) {
 		
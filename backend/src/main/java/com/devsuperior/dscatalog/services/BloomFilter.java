@@ -0,0 +1,82 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Filtro de Bloom para strings: "não contém" é sempre exato, "talvez contém"
+ * erra com a taxa de falso positivo escolhida. Os k índices vêm de double
+ * hashing sobre um hash de 64 bits; os bits são gravados com CAS, então
+ * put e mightContain podem ser chamados concorrentemente.
+ * */
+final class BloomFilter {
+
+	private final AtomicLongArray bits;
+	private final long bitCount;
+	private final int hashCount;
+
+	BloomFilter(long expectedInsertions, double falsePositiveRate) {
+		long n = Math.max(1, expectedInsertions);
+		long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+		this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+		this.bits = new AtomicLongArray((int) (bitCount / 64));
+	}
+
+	void put(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(h1 + i * h2);
+			int word = (int) (index >>> 6);
+			long mask = 1L << index;
+			long current;
+			do {
+				current = bits.get(word);
+				if ((current & mask) != 0) {
+					break;
+				}
+			} while (!bits.compareAndSet(word, current, current | mask));
+		}
+	}
+
+	boolean mightContain(String value) {
+		long hash = hash(value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashCount; i++) {
+			long index = index(h1 + i * h2);
+			if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	long bitCount() {
+		return bitCount;
+	}
+
+	int hashCount() {
+		return hashCount;
+	}
+
+	private long index(int combined) {
+		return Integer.toUnsignedLong(combined) % bitCount;
+	}
+
+	// FNV-1a de 64 bits seguido do fmix64 do MurmurHash3, para espalhar os bits.
+	private static long hash(String value) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			h ^= value.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.dto.CacheRegionDTO;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+/*
+ * Consulta e limpeza das regiões do cache de segundo nível do Hibernate.
+ * Os contadores vêm das estatísticas do Hibernate (generate_statistics).
+ * */
+@Service
+public class CacheAdminService {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	public List<CacheRegionDTO> findAll() {
+		SessionFactoryImplementor sessionFactory = sessionFactory();
+		Statistics statistics = sessionFactory.getStatistics();
+		return sessionFactory.getCache().getCacheRegionNames().stream()
+				.sorted()
+				.map(name -> toDto(name, statistics.getCacheRegionStatistics(name)))
+				.collect(Collectors.toList());
+	}
+
+	public void evictAll() {
+		sessionFactory().getCache().evictAllRegions();
+	}
+
+	public void evict(String region) {
+		SessionFactoryImplementor sessionFactory = sessionFactory();
+		if (sessionFactory.getCache().getRegion(region) == null) {
+			throw new ResourceNotFoundException("Cache region not found " + region);
+		}
+		sessionFactory.getCache().evictRegion(region);
+	}
+
+	private SessionFactoryImplementor sessionFactory() {
+		return entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+	}
+
+	private static CacheRegionDTO toDto(String name, CacheRegionStatistics statistics) {
+		if (statistics == null) {
+			return new CacheRegionDTO(name, 0, 0, 0);
+		}
+		return new CacheRegionDTO(name, statistics.getHitCount(), statistics.getMissCount(), statistics.getPutCount());
+	}
+}
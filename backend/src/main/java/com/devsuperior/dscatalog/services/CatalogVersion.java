@@ -0,0 +1,44 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
+import com.devsuperior.dscatalog.entities.CatalogRevision;
+import com.devsuperior.dscatalog.repositories.CatalogRevisionRepository;
+
+/*
+ * Versão global do catálogo, usada como ETag das listagens. Fica no banco
+ * (tb_catalog_revision) e é incrementada dentro da própria transação de
+ * escrita, então uma escrita feita por qualquer instância muda a tag de todas.
+ * O custo é que os escritores se serializam nessa linha até o commit.
+ * Escritas feitas direto no banco só são vistas se também incrementarem a linha.
+ * */
+@Component
+public class CatalogVersion {
+
+	@Autowired
+	private CatalogRevisionRepository repository;
+
+	/*
+	 * Deve ser lida antes dos dados da página: uma escrita que comite no meio
+	 * deixa a tag antiga com o corpo novo, e a próxima revalidação falha.
+	 * */
+	@Transactional(readOnly = true)
+	public ResourceVersionDTO current() {
+		CatalogRevision current = repository.findById(CatalogRevision.ID)
+				.orElse(new CatalogRevision(CatalogRevision.ID, 0L, null));
+		return new ResourceVersionDTO(String.valueOf(current.getRevision()), current.getUpdatedAt());
+	}
+
+	@Transactional
+	public void increment() {
+		Instant now = Instant.now();
+		if (repository.increment(CatalogRevision.ID, now) == 0) {
+			repository.save(new CatalogRevision(CatalogRevision.ID, 1L, now));
+		}
+	}
+}
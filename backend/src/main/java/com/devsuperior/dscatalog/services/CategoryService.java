@@ -1,10 +1,17 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.Objects;
 import java.util.Optional;
 
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -12,9 +19,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.config.CacheConfig;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
 import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Tombstone;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
 import com.devsuperior.dscatalog.services.exceptions.DataBaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 
@@ -24,25 +36,52 @@ public class CategoryService {
 	@Autowired
 	private CategoryRepository categoryRepository;
 	
+	@Autowired
+	private ProductRepository productRepository;
+	
+	@Autowired
+	private TombstoneRepository tombstoneRepository;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	private CatalogVersion catalogVersion;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
 //	@Transactional(readOnly = true)
 //	public Page<CategoryDTO> findAll(Pageable pageable){
 //		return categoryRepository.findAll(pageable).map(x -> new CategoryDTO(x));
 //	}
 	
+	@Cacheable(value = CacheConfig.CATEGORY_PAGES, key = "#pageable")
 	@Transactional(readOnly = true)
 	public Page<CategoryDTO> findAllPaged(Pageable pageable) {
 		return categoryRepository.findAll(pageable).map(x -> new CategoryDTO(x));
 	}
 	
-	@Transactional(readOnly = true)
+	/*
+	 * Mesma carga compartilhada do ProductService.findById; o findById do
+	 * repositório já é transacional e o DTO não lê nada preguiçoso.
+	 * */
+	@Cacheable(value = CacheConfig.CATEGORIES, key = "#id")
 	public CategoryDTO findById(Long id) {
-		Optional<Category> obj = categoryRepository.findById(id);
-		
-		Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
-		
-		return new CategoryDTO(entity);
+		return singleFlight.execute(CacheConfig.CATEGORIES, id, () -> {
+			Optional<Category> obj = categoryRepository.findById(id);
+			
+			Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+			
+			return new CategoryDTO(entity);
+		});
 	}
 	
+	public ResourceVersionDTO getCatalogVersion() {
+		return catalogVersion.current();
+	}
+	
+	@CacheEvict(value = CacheConfig.CATEGORY_PAGES, allEntries = true)
 	@Transactional
 	public CategoryDTO insert(CategoryDTO dto) {
 		// TODO Auto-generated method stub
@@ -50,19 +89,31 @@ public class CategoryService {
 		Category entity = new Category();
 		entity.setName(dto.getName());
 		entity = categoryRepository.save(entity);
+		catalogVersion.increment();
 		
 		return new CategoryDTO(entity);
 	}
 	
+	@Caching(
+		put = @CachePut(value = CacheConfig.CATEGORIES, key = "#id"),
+		evict = @CacheEvict(value = CacheConfig.CATEGORY_PAGES, allEntries = true)
+	)
 	@Transactional
 	public CategoryDTO update(Long id, CategoryDTO dto) {
 		
 		try {
 			Category entity = categoryRepository.getOne(id);
+			OptimisticRetry.checkVersion(entity.getVersion(), dto.getVersion());
+			boolean renamed = !Objects.equals(entity.getName(), dto.getName());
 			
 			entity.setName(dto.getName());
 			entity = categoryRepository.save(entity);
 			
+			if (renamed) {
+				evictProductsOf(id);
+			}
+			catalogVersion.increment();
+			
 			return new CategoryDTO(entity);
 			
 		} catch (EntityNotFoundException e) {
@@ -71,9 +122,17 @@ public class CategoryService {
 		
 	}
 
+	@Caching(evict = {
+		@CacheEvict(value = CacheConfig.CATEGORIES, key = "#id"),
+		@CacheEvict(value = CacheConfig.CATEGORY_PAGES, allEntries = true)
+	})
+	@Transactional
 	public void delete(Long id) {
 		try {
 			categoryRepository.deleteById(id);
+			categoryRepository.flush();
+			tombstoneRepository.save(new Tombstone(Tombstone.CATEGORY, id));
+			catalogVersion.increment();
 			
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
@@ -82,5 +141,14 @@ public class CategoryService {
 			throw new DataBaseException("Integrity violation");
 		}
 	}
+	
+	/*
+	 * Os ProductDTOs em cache carregam o nome da categoria,
+	 * então apenas os produtos dessa categoria são removidos.
+	 * */
+	private void evictProductsOf(Long categoryId) {
+		Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+		productRepository.findIdsByCategoryId(categoryId).forEach(products::evict);
+	}
 
 }
\ No newline at end of file
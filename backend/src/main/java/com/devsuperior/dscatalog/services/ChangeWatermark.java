@@ -0,0 +1,109 @@
+package com.devsuperior.dscatalog.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Tombstone;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
+
+/*
+ * Watermark opaco da sincronização incremental: a última chave (instante, id)
+ * entregue de cada fluxo (produtos, categorias e exclusões), em Base64.
+ * */
+final class ChangeWatermark {
+
+	private static final Instant ORIGIN = Instant.EPOCH;
+
+	private final Instant productsAt;
+	private final Long productsId;
+	private final Instant categoriesAt;
+	private final Long categoriesId;
+	private final Instant deletedAt;
+	private final Long deletedId;
+
+	private ChangeWatermark(Instant productsAt, Long productsId, Instant categoriesAt, Long categoriesId,
+			Instant deletedAt, Long deletedId) {
+		this.productsAt = productsAt;
+		this.productsId = productsId;
+		this.categoriesAt = categoriesAt;
+		this.categoriesId = categoriesId;
+		this.deletedAt = deletedAt;
+		this.deletedId = deletedId;
+	}
+
+	static ChangeWatermark initial() {
+		return new ChangeWatermark(ORIGIN, 0L, ORIGIN, 0L, ORIGIN, 0L);
+	}
+
+	static ChangeWatermark decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(",", -1);
+			return new ChangeWatermark(Instant.parse(parts[0]), Long.valueOf(parts[1]),
+					Instant.parse(parts[2]), Long.valueOf(parts[3]),
+					Instant.parse(parts[4]), Long.valueOf(parts[5]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidRequestException("Invalid watermark");
+		}
+	}
+
+	String encode() {
+		String raw = productsAt + "," + productsId + "," + categoriesAt + "," + categoriesId + "," + deletedAt + "," + deletedId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * Cada fluxo avança até o último item entregue; um fluxo sem
+	 * novidades mantém a posição anterior.
+	 * */
+	ChangeWatermark advance(List<Product> products, List<Category> categories, List<Tombstone> tombstones) {
+		Instant pAt = productsAt, cAt = categoriesAt, dAt = deletedAt;
+		Long pId = productsId, cId = categoriesId, dId = deletedId;
+
+		if (!products.isEmpty()) {
+			Product last = products.get(products.size() - 1);
+			pAt = last.getUpdatedAt();
+			pId = last.getId();
+		}
+		if (!categories.isEmpty()) {
+			Category last = categories.get(categories.size() - 1);
+			cAt = last.getUpdateAt();
+			cId = last.getId();
+		}
+		if (!tombstones.isEmpty()) {
+			Tombstone last = tombstones.get(tombstones.size() - 1);
+			dAt = last.getDeletedAt();
+			dId = last.getId();
+		}
+		return new ChangeWatermark(pAt, pId, cAt, cId, dAt, dId);
+	}
+
+	Instant getProductsAt() {
+		return productsAt;
+	}
+
+	Long getProductsId() {
+		return productsId;
+	}
+
+	Instant getCategoriesAt() {
+		return categoriesAt;
+	}
+
+	Long getCategoriesId() {
+		return categoriesId;
+	}
+
+	Instant getDeletedAt() {
+		return deletedAt;
+	}
+
+	Long getDeletedId() {
+		return deletedId;
+	}
+}
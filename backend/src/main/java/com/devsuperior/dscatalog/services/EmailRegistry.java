@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+/*
+ * Filtro de Bloom com os emails cadastrados, na frente da checagem de email
+ * duplicado: um email novo quase nunca precisa ir ao banco. Um falso
+ * positivo só custa o existsByEmail; a unicidade continua garantida pelo
+ * índice único da coluna. Enquanto o filtro não foi carregado, toda
+ * consulta vai ao banco.
+ * */
+@Component
+public class EmailRegistry {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${dscatalog.users.email-filter.expected-insertions:1000000}")
+	private long expectedInsertions;
+
+	@Value("${dscatalog.users.email-filter.false-positive-rate:0.01}")
+	private double falsePositiveRate;
+
+	private volatile BloomFilter filter;
+	private volatile BloomFilter building;
+
+	/*
+	 * O novo filtro é publicado em building antes da leitura: emails
+	 * adicionados durante a carga entram nos dois.
+	 * */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+
+		template.executeWithoutResult(status -> {
+			long expected = Math.max(expectedInsertions, userRepository.count() * 2);
+			BloomFilter next = new BloomFilter(expected, falsePositiveRate);
+			building = next;
+			try (Stream<String> emails = userRepository.streamAllEmails()) {
+				emails.forEach(next::put);
+			}
+			filter = next;
+			building = null;
+		});
+	}
+
+	public void add(String email) {
+		BloomFilter current = filter;
+		if (current != null) {
+			current.put(email);
+		}
+		BloomFilter next = building;
+		if (next != null) {
+			next.put(email);
+		}
+	}
+
+	public boolean mightExist(String email) {
+		BloomFilter current = filter;
+		return current == null || current.mightContain(email);
+	}
+}
@@ -0,0 +1,34 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
+
+public enum ExportFormat {
+
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+
+	private final String contentType;
+	private final String extension;
+
+	ExportFormat(String contentType, String extension) {
+		this.contentType = contentType;
+		this.extension = extension;
+	}
+
+	public static ExportFormat of(String name) {
+		for (ExportFormat format : values()) {
+			if (format.extension.equalsIgnoreCase(name)) {
+				return format;
+			}
+		}
+		throw new InvalidRequestException("Invalid export format " + name);
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+}
@@ -0,0 +1,68 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
+
+/*
+ * Repete uma atualização que perdeu a corrida no UPDATE ... WHERE version=?
+ * (outra transação gravou entre a leitura e o flush). Cada tentativa precisa
+ * ser uma transação nova: quem chama passa pelo proxy do serviço. Entre as
+ * tentativas espera backoff, dobrando a cada vez, com jitter; esgotadas as
+ * tentativas, ou se o cliente mandou uma versão já vencida, responde 409.
+ *
+ * Só repete quando o cliente mandou a versão sobre a qual editou: a nova
+ * tentativa confere essa versão e, se outro escritor gravou, vira 409. Sem
+ * versão, repetir reaplicaria o mesmo DTO por cima do que o outro gravou;
+ * então a primeira falha já responde 409 e o cliente recarrega.
+ * */
+@Component
+public class OptimisticRetry {
+
+	@Value("${dscatalog.optimistic-retry.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${dscatalog.optimistic-retry.backoff:10ms}")
+	private Duration backoff;
+
+	public <T> T execute(Long version, Supplier<T> update) {
+		int attempts = version == null ? 1 : maxAttempts;
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return update.get();
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt >= attempts) {
+					throw new ConflictException("Resource was modified concurrently, reload it and try again");
+				}
+				pause(attempt);
+			}
+		}
+	}
+
+	/*
+	 * Versão enviada pelo cliente (opcional): se não é a atual, a edição foi
+	 * feita sobre uma leitura vencida e repetir não adianta. Se é, o
+	 * Hibernate grava com UPDATE ... WHERE id=? AND version=<essa versão>.
+	 * */
+	public static void checkVersion(Long current, Long expected) {
+		if (expected != null && !expected.equals(current)) {
+			throw new ConflictException("Stale version " + expected + ", current version is " + current);
+		}
+	}
+
+	private void pause(int attempt) {
+		long base = backoff.toMillis() << (attempt - 1);
+		try {
+			Thread.sleep(base + ThreadLocalRandom.current().nextLong(base + 1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConflictException("Interrupted while retrying a concurrent update");
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * O BCrypt custa dezenas a centenas de milissegundos de CPU por senha.
+ * O hash roda em um pool próprio e limitado, fora das threads do Tomcat;
+ * com a fila cheia a requisição é recusada na hora (503), em vez de
+ * ocupar as threads que atendem as leituras do catálogo.
+ * */
+@Service
+public class PasswordHashingService {
+
+	private final PasswordEncoder passwordEncoder;
+	private final ThreadPoolExecutor executor;
+	private final Timer hashTimer;
+
+	public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry registry,
+			@Value("${dscatalog.password-hashing.threads:2}") int threads,
+			@Value("${dscatalog.password-hashing.queue-capacity:50}") int queueCapacity) {
+		this.passwordEncoder = passwordEncoder;
+
+		AtomicInteger counter = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.AbortPolicy());
+
+		this.hashTimer = Timer.builder("dscatalog.password.hash")
+				.publishPercentileHistogram()
+				.register(registry);
+		Gauge.builder("dscatalog.password.hash.queue", executor, x -> x.getQueue().size())
+				.register(registry);
+		Gauge.builder("dscatalog.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+				.register(registry);
+	}
+
+	public CompletableFuture<String> encode(String rawPassword) {
+		try {
+			return CompletableFuture.supplyAsync(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)), executor);
+		} catch (RejectedExecutionException e) {
+			throw new ServiceUnavailableException("Too many concurrent sign-ups, try again later");
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
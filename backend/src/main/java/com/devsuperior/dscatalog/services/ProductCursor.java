@@ -0,0 +1,91 @@
+package com.devsuperior.dscatalog.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
+
+/*
+ * Cursor opaco da paginação por keyset: guarda a ordenação usada e a
+ * última chave (valor, id) entregue ao cliente, codificados em Base64.
+ * */
+final class ProductCursor {
+
+	static final String ORDER_BY_NAME = "name";
+	static final String ORDER_BY_DATE = "date";
+
+	private final String orderBy;
+	private final String value;
+	private final Long id;
+
+	private ProductCursor(String orderBy, String value, Long id) {
+		this.orderBy = orderBy;
+		this.value = value;
+		this.id = id;
+	}
+
+	static ProductCursor first(String orderBy) {
+		if (!ORDER_BY_NAME.equals(orderBy) && !ORDER_BY_DATE.equals(orderBy)) {
+			throw new InvalidRequestException("Invalid orderBy " + orderBy);
+		}
+		return new ProductCursor(orderBy, null, null);
+	}
+
+	static ProductCursor after(String orderBy, Product last) {
+		String value;
+		if (ORDER_BY_NAME.equals(orderBy)) {
+			value = last.getName();
+		} else {
+			// Data vazia no token marca um produto sem data (fim da ordenação).
+			value = last.getDate() == null ? "" : last.getDate().toString();
+		}
+		return new ProductCursor(orderBy, value, last.getId());
+	}
+
+	static ProductCursor decode(String token) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(":", 3);
+			ProductCursor cursor = new ProductCursor(parts[0], parts[2], Long.valueOf(parts[1]));
+			first(cursor.orderBy);
+			if (cursor.isOrderByDate()) {
+				cursor.getDate();
+			}
+			return cursor;
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+			throw new InvalidRequestException("Invalid cursor");
+		}
+	}
+
+	String encode() {
+		String raw = orderBy + ":" + id + ":" + value;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	boolean isFirst() {
+		return id == null;
+	}
+
+	boolean isOrderByDate() {
+		return ORDER_BY_DATE.equals(orderBy);
+	}
+
+	String getOrderBy() {
+		return orderBy;
+	}
+
+	String getName() {
+		return value;
+	}
+
+	Instant getDate() {
+		return value.isEmpty() ? null : Instant.parse(value);
+	}
+
+	Long getId() {
+		return id;
+	}
+}
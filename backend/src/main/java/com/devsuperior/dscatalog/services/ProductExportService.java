@@ -0,0 +1,152 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductCategoryProjection;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/*
+ * Exportação do catálogo completo direto para o corpo da resposta.
+ * Os produtos vêm de um cursor (Stream) só de leitura; a cada bloco as
+ * categorias são carregadas em uma consulta e o contexto de persistência
+ * é limpo, de modo que o uso de memória não depende do tamanho do catálogo.
+ * */
+@Service
+public class ProductExportService {
+
+	private static final String CSV_HEADER = "id,name,description,price,imgUrl,date,categoryIds,categoryNames";
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${dscatalog.export.chunk-size:500}")
+	private int chunkSize;
+
+	public void export(ExportFormat format, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		ObjectWriter jsonWriter = objectMapper.writerFor(ProductDTO.class);
+
+		if (format == ExportFormat.CSV) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+
+		try {
+			template.executeWithoutResult(status -> {
+				try (Stream<Product> stream = productRepository.streamAll()) {
+					Iterator<Product> it = stream.iterator();
+					List<Product> chunk = new ArrayList<>(chunkSize);
+					while (it.hasNext()) {
+						chunk.add(it.next());
+						if (chunk.size() == chunkSize || !it.hasNext()) {
+							writeChunk(chunk, format, writer, jsonWriter);
+							chunk.clear();
+							entityManager.clear();
+						}
+					}
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+
+	private void writeChunk(List<Product> chunk, ExportFormat format, Writer writer, ObjectWriter jsonWriter) throws IOException {
+		List<Long> ids = chunk.stream().map(Product::getId).collect(Collectors.toList());
+		Map<Long, List<CategoryDTO>> categories = productRepository.findCategoriesByProductIdIn(ids).stream()
+				.collect(Collectors.groupingBy(ProductCategoryProjection::getProductId,
+						Collectors.mapping(ProductExportService::toCategoryDto, Collectors.toList())));
+
+		for (Product product : chunk) {
+			ProductDTO dto = new ProductDTO(product);
+			dto.getCategories().addAll(categories.getOrDefault(product.getId(), List.of()));
+
+			if (format == ExportFormat.CSV) {
+				writeCsvLine(dto, writer);
+			} else {
+				writer.write(jsonWriter.writeValueAsString(dto));
+				writer.write('\n');
+			}
+		}
+		// Envia o bloco ao cliente em vez de acumular no buffer.
+		writer.flush();
+	}
+
+	private static void writeCsvLine(ProductDTO dto, Writer writer) throws IOException {
+		String categoryIds = dto.getCategories().stream().map(x -> String.valueOf(x.getId())).collect(Collectors.joining("|"));
+		String categoryNames = dto.getCategories().stream().map(CategoryDTO::getName).collect(Collectors.joining("|"));
+
+		writer.write(String.join(",",
+				String.valueOf(dto.getId()),
+				csv(dto.getName()),
+				csv(dto.getDescription()),
+				dto.getPrice() == null ? "" : String.valueOf(dto.getPrice()),
+				csv(dto.getImgUrl()),
+				dto.getDate() == null ? "" : dto.getDate().toString(),
+				csv(categoryIds),
+				csv(categoryNames)));
+		writer.write('\n');
+	}
+
+	/*
+	 * Escapa o campo segundo a RFC 4180: entre aspas quando houver vírgula,
+	 * aspas ou quebra de linha, com as aspas internas duplicadas.
+	 * */
+	static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private static CategoryDTO toCategoryDto(ProductCategoryProjection projection) {
+		CategoryDTO dto = new CategoryDTO();
+		dto.setId(projection.getCategoryId());
+		dto.setName(projection.getCategoryName());
+		return dto;
+	}
+}
@@ -0,0 +1,233 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ImportSummaryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Importação em lote de produtos a partir de um array JSON ou de NDJSON.
+ * O corpo é lido em streaming e gravado em blocos (chunk-size), cada bloco
+ * na sua própria transação; com o id por sequência o Hibernate agrupa os
+ * INSERTs em lotes de hibernate.jdbc.batch_size. Linhas inválidas entram
+ * no resumo sem interromper a carga.
+ * */
+@Service
+public class ProductImportService {
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ReferenceResolver referenceResolver;
+
+	@Autowired
+	private ProductSearchIndex searchIndex;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Value("${dscatalog.import.chunk-size:1000}")
+	private int chunkSize;
+
+	public ImportSummaryDTO importProducts(InputStream body) {
+		ImportSummaryDTO summary = new ImportSummaryDTO();
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+		// Categorias já consultadas nesta importação: id -> existe
+		Map<Long, Boolean> knownCategories = new HashMap<>();
+		List<Row> chunk = new ArrayList<>(chunkSize);
+		long rowNumber = 0;
+
+		// O MappingIterator aceita tanto um array JSON quanto valores separados por linha.
+		try (MappingIterator<ProductDTO> it = objectMapper.readerFor(ProductDTO.class).readValues(body)) {
+			while (true) {
+				ProductDTO dto;
+				try {
+					if (!it.hasNextValue()) {
+						break;
+					}
+					rowNumber++;
+					summary.addReceived();
+					dto = it.nextValue();
+				} catch (JsonMappingException e) {
+					// Valor com tipo inválido: o iterador avança para o próximo objeto.
+					summary.addError(rowNumber, "Invalid value: " + e.getOriginalMessage());
+					continue;
+				}
+
+				String error = validate(dto);
+				if (error != null) {
+					summary.addError(rowNumber, error);
+					continue;
+				}
+
+				chunk.add(new Row(rowNumber, dto));
+				if (chunk.size() >= chunkSize) {
+					writeChunk(template, chunk, knownCategories, summary);
+					chunk.clear();
+				}
+			}
+		} catch (JsonProcessingException e) {
+			summary.addError(rowNumber, "Malformed content, import stopped: " + e.getOriginalMessage());
+		} catch (IOException e) {
+			summary.addError(rowNumber, "Could not read request body, import stopped");
+		}
+
+		if (!chunk.isEmpty()) {
+			writeChunk(template, chunk, knownCategories, summary);
+		}
+		return summary;
+	}
+
+	private String validate(ProductDTO dto) {
+		Set<ConstraintViolation<ProductDTO>> violations = validator.validate(dto);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(x -> x.getPropertyPath() + ": " + x.getMessage())
+				.sorted()
+				.collect(Collectors.joining("; "));
+	}
+
+	/*
+	 * Se o bloco falhar no banco (ex.: violação de integridade), ele é
+	 * refeito linha a linha para isolar as linhas com problema.
+	 * */
+	private void writeChunk(TransactionTemplate template, List<Row> chunk, Map<Long, Boolean> knownCategories,
+			ImportSummaryDTO summary) {
+		List<Row> valid = new ArrayList<>(chunk.size());
+		resolveCategories(chunk, knownCategories);
+		for (Row row : chunk) {
+			String error = null;
+			for (CategoryDTO category : row.dto.getCategories()) {
+				if (!Boolean.TRUE.equals(knownCategories.get(category.getId()))) {
+					error = "Category not found " + category.getId();
+					break;
+				}
+			}
+			if (error != null) {
+				summary.addError(row.number, error);
+			} else {
+				valid.add(row);
+			}
+		}
+		if (valid.isEmpty()) {
+			return;
+		}
+
+		try {
+			template.executeWithoutResult(status -> persist(valid));
+			summary.addImported(valid.size());
+		} catch (DataAccessException e) {
+			for (Row row : valid) {
+				try {
+					template.executeWithoutResult(status -> persist(List.of(row)));
+					summary.addImported(1);
+				} catch (DataAccessException ex) {
+					summary.addError(row.number, "Integrity violation");
+				}
+			}
+		}
+	}
+
+	/*
+	 * Uma única consulta por bloco (pelo mesmo ReferenceResolver das escritas
+	 * unitárias), apenas para os ids ainda não vistos.
+	 * */
+	private void resolveCategories(List<Row> chunk, Map<Long, Boolean> knownCategories) {
+		Set<Long> unknown = new HashSet<>();
+		for (Row row : chunk) {
+			for (CategoryDTO category : row.dto.getCategories()) {
+				if (category.getId() != null && !knownCategories.containsKey(category.getId())) {
+					unknown.add(category.getId());
+				}
+			}
+		}
+		if (unknown.isEmpty()) {
+			return;
+		}
+		unknown.forEach(id -> knownCategories.put(id, false));
+		referenceResolver.findAll(categoryRepository, unknown, Category::getId).keySet()
+				.forEach(id -> knownCategories.put(id, true));
+	}
+
+	private void persist(List<Row> rows) {
+		List<Product> entities = new ArrayList<>(rows.size());
+		for (Row row : rows) {
+			ProductDTO dto = row.dto;
+			Product entity = new Product(null, dto.getName(), dto.getDescription(), dto.getPrice(), dto.getImgUrl(), dto.getDate());
+			for (CategoryDTO category : dto.getCategories()) {
+				entity.getCategories().add(categoryRepository.getOne(category.getId()));
+			}
+			entities.add(entity);
+		}
+
+		productRepository.saveAll(entities);
+		productRepository.flush();
+		entities.forEach(x -> searchIndex.index(x.getId(), x.getName(), x.getDescription()));
+		catalogVersion.increment();
+
+		// Libera o contexto de persistência: o bloco seguinte começa vazio.
+		entityManager.clear();
+	}
+
+	private static final class Row {
+
+		private final long number;
+		private final ProductDTO dto;
+
+		private Row(long number, ProductDTO dto) {
+			this.number = number;
+			this.dto = dto;
+		}
+	}
+}
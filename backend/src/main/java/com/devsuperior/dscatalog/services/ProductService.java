@@ -1,47 +1,275 @@
 package com.devsuperior.dscatalog.services;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.devsuperior.dscatalog.config.CacheConfig;
+import com.devsuperior.dscatalog.dto.CatalogChangesDTO;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.PriceRangeFacetDTO;
+import com.devsuperior.dscatalog.dto.ProductCategoryProjection;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetPageDTO;
+import com.devsuperior.dscatalog.dto.ProductFilterDTO;
+import com.devsuperior.dscatalog.dto.ProductLookupDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
+import com.devsuperior.dscatalog.dto.TombstoneDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Tombstone;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
 import com.devsuperior.dscatalog.services.exceptions.DataBaseException;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
 
 @Service
 public class ProductService {
 	
+	private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+	
 	@Autowired
 	private ProductRepository productRepository;
 	
 	@Autowired
 	private CategoryRepository categoryRepository;
 	
+	@Autowired
+	private TombstoneRepository tombstoneRepository;
+	
+	@Autowired
+	private ReferenceResolver referenceResolver;
+	
+	@Autowired
+	private ProductSearchIndex searchIndex;
+	
+	@Autowired
+	private CatalogVersion catalogVersion;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
+	@Value("${dscatalog.facets.price-buckets:0,100,500,1000,2000,5000}")
+	private double[] priceBuckets;
+	
+	@Value("${dscatalog.products.multi-get.max-ids:100}")
+	private int maxMultiGetIds;
+	
+	@Value("${dscatalog.changes.settle-time:2s}")
+	private Duration changesSettleTime;
+	
 	@Transactional(readOnly = true)
 	public Page<ProductDTO> findAllPaged(Pageable pageable) {
-		return productRepository.findAll(pageable).map(x -> new ProductDTO(x));
+		Page<Long> ids = productRepository.findPagedIds(pageable);
+		List<ProductDTO> content = toDtoWithCategories(findAllWithCategories(ids.getContent()));
+		return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+	}
+	
+	/*
+	 * Listagem resumida: projeção de construtor sem a descrição e categorias
+	 * lidas como pares (produto, categoria), sem instanciar entidades.
+	 * */
+	@Transactional(readOnly = true)
+	public Page<ProductSummaryDTO> findAllSummaries(Pageable pageable) {
+		Page<Long> ids = productRepository.findPagedIds(pageable);
+		return new PageImpl<>(findSummaries(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+	}
+	
+	/*
+	 * Página filtrada mais as facetas: o número de consultas é fixo
+	 * (ids, count, categorias, faixas de preço e carga dos produtos),
+	 * qualquer que seja a quantidade de categorias ou de faixas.
+	 * */
+	@Transactional(readOnly = true)
+	public ProductFacetPageDTO<ProductDTO> findAllFiltered(ProductFilterDTO filter, Pageable pageable) {
+		return findAllFiltered(filter, pageable, ids -> toDtoWithCategories(findAllWithCategories(ids)));
+	}
+	
+	@Transactional(readOnly = true)
+	public ProductFacetPageDTO<ProductSummaryDTO> findAllFilteredSummaries(ProductFilterDTO filter, Pageable pageable) {
+		return findAllFiltered(filter, pageable, this::findSummaries);
+	}
+	
+	private <T> ProductFacetPageDTO<T> findAllFiltered(ProductFilterDTO filter, Pageable pageable, Function<List<Long>, List<T>> loader) {
+		if (filter.getMinPrice() != null && filter.getMaxPrice() != null && filter.getMinPrice() > filter.getMaxPrice()) {
+			throw new InvalidRequestException("minPrice must not be greater than maxPrice");
+		}
+		
+		Page<Long> ids = productRepository.findFilteredIds(filter, pageable);
+		List<T> content = loader.apply(ids.getContent());
+		
+		List<CategoryFacetDTO> categoryFacets = productRepository.countByCategory(filter);
+		
+		long[] counts = productRepository.countByPriceRange(filter, priceBuckets);
+		List<PriceRangeFacetDTO> priceFacets = new ArrayList<>();
+		for (int i = 0; i < counts.length; i++) {
+			Double max = i + 1 < priceBuckets.length ? priceBuckets[i + 1] : null;
+			priceFacets.add(new PriceRangeFacetDTO(priceBuckets[i], max, counts[i]));
+		}
+		
+		return new ProductFacetPageDTO<>(content, pageable, ids.getTotalElements(), categoryFacets, priceFacets);
+	}
+	
+	@Transactional(readOnly = true)
+	public CursorPageDTO<ProductDTO> findAllByCursor(String after, String orderBy, int size) {
+		ProductCursor cursor = (after == null || after.isBlank()) ? ProductCursor.first(orderBy) : ProductCursor.decode(after);
+		size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+		
+		// Busca um registro a mais apenas para saber se existe próxima página.
+		Pageable limit = PageRequest.of(0, size + 1);
+		List<Long> ids;
+		if (cursor.isOrderByDate()) {
+			if (cursor.isFirst()) {
+				ids = productRepository.findFirstIdsOrderByDate(limit);
+			} else if (cursor.getDate() == null) {
+				ids = productRepository.findNextIdsWithoutDate(cursor.getId(), limit);
+			} else {
+				ids = productRepository.findNextIdsOrderByDate(cursor.getDate(), cursor.getId(), limit);
+			}
+		} else {
+			ids = cursor.isFirst() ? productRepository.findFirstIdsOrderByName(limit)
+					: productRepository.findNextIdsOrderByName(cursor.getName(), cursor.getId(), limit);
+		}
+		
+		boolean hasNext = ids.size() > size;
+		List<Product> list = findAllWithCategories(hasNext ? ids.subList(0, size) : ids);
+		
+		String nextCursor = null;
+		if (hasNext && !list.isEmpty()) {
+			nextCursor = ProductCursor.after(cursor.getOrderBy(), list.get(list.size() - 1)).encode();
+		}
+		
+		return new CursorPageDTO<>(toDtoWithCategories(list), size, nextCursor);
 	}
 	
+	/*
+	 * Sincronização incremental: produtos, categorias e exclusões posteriores
+	 * ao watermark, cada fluxo lido por keyset em (instante, id). Alterações mais
+	 * novas que o settle-time ficam para a próxima chamada, pois o instante é
+	 * gravado antes do commit e uma transação lenta poderia aparecer "no passado".
+	 * */
 	@Transactional(readOnly = true)
+	public CatalogChangesDTO findChanges(String since, int size) {
+		ChangeWatermark watermark = (since == null || since.isBlank()) ? ChangeWatermark.initial() : ChangeWatermark.decode(since);
+		size = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+		Instant until = Instant.now().minus(changesSettleTime);
+		
+		// Um registro a mais em cada fluxo indica se ainda há alterações pendentes.
+		Pageable limit = PageRequest.of(0, size + 1);
+		List<Long> ids = productRepository.findChangedIds(watermark.getProductsAt(), watermark.getProductsId(), until, limit);
+		List<Category> categories = categoryRepository.findChanges(watermark.getCategoriesAt(), watermark.getCategoriesId(), until, limit);
+		List<Tombstone> tombstones = tombstoneRepository.findChanges(watermark.getDeletedAt(), watermark.getDeletedId(), until, limit);
+		
+		boolean hasMore = ids.size() > size || categories.size() > size || tombstones.size() > size;
+		List<Product> products = findAllWithCategories(truncate(ids, size));
+		categories = truncate(categories, size);
+		tombstones = truncate(tombstones, size);
+		
+		return new CatalogChangesDTO(toDtoWithCategories(products),
+				categories.stream().map(x -> new CategoryDTO(x)).collect(Collectors.toList()),
+				tombstones.stream().map(x -> new TombstoneDTO(x)).collect(Collectors.toList()),
+				hasMore, watermark.advance(products, categories, tombstones).encode());
+	}
+	
+	@Transactional(readOnly = true)
+	public Page<ProductDTO> search(String query, Pageable pageable) {
+		Page<Long> ids = searchIndex.search(query, pageable);
+		List<ProductDTO> content = toDtoWithCategories(findAllWithCategories(ids.getContent()));
+		return new PageImpl<>(content, pageable, ids.getTotalElements());
+	}
+	
+	public ResourceVersionDTO getCatalogVersion() {
+		return catalogVersion.current();
+	}
+	
+	/*
+	 * Falhas de cache concorrentes do mesmo id (por exemplo, logo após uma
+	 * edição) compartilham uma única carga; a transação só é aberta por quem
+	 * carrega, então quem espera não ocupa conexão.
+	 * */
+	@Cacheable(value = CacheConfig.PRODUCTS, key = "#id")
 	public ProductDTO findById(Long id) {
-		Optional<Product> obj = productRepository.findById(id);
+		return singleFlight.execute(CacheConfig.PRODUCTS, id, () -> readOnly().execute(status -> {
+			Optional<Product> obj = productRepository.findById(id);
+			
+			Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+			
+			return new ProductDTO(entity, entity.getCategories());
+		}));
+	}
+	
+	/*
+	 * Busca em lote, na ordem pedida: o que já está no cache de produtos sai
+	 * dele e o resto vem em uma única consulta (com as categorias), entrando
+	 * no cache como no findById. Ids inexistentes voltam com found=false.
+	 * */
+	@Transactional(readOnly = true)
+	public List<ProductLookupDTO> findByIds(List<Long> ids) {
+		if (ids.isEmpty() || ids.size() > maxMultiGetIds) {
+			throw new InvalidRequestException("Between 1 and " + maxMultiGetIds + " ids are required");
+		}
+		if (ids.stream().anyMatch(Objects::isNull)) {
+			throw new InvalidRequestException("Invalid id");
+		}
 		
-		Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Entity not found"));
+		Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+		Map<Long, ProductDTO> found = new HashMap<>();
+		List<Long> misses = new ArrayList<>();
+		for (Long id : new LinkedHashSet<>(ids)) {
+			ProductDTO cached = cache.get(id, ProductDTO.class);
+			if (cached != null) {
+				found.put(id, cached);
+			} else {
+				misses.add(id);
+			}
+		}
+		
+		for (ProductDTO dto : toDtoWithCategories(findAllWithCategories(misses))) {
+			cache.put(dto.getId(), dto);
+			found.put(dto.getId(), dto);
+		}
 		
-		return new ProductDTO(entity, entity.getCategories());
+		return ids.stream().map(id -> new ProductLookupDTO(id, found.get(id))).collect(Collectors.toList());
 	}
 	
 	@Transactional
@@ -50,24 +278,30 @@ public class ProductService {
 		
 		Product entity = new Product();
 		
-		copyDtoToEntity(entity, dto);
+		List<CategoryDTO> categories = copyDtoToEntity(entity, dto);
 		
 		entity = productRepository.save(entity);
+		searchIndex.index(entity.getId(), entity.getName(), entity.getDescription());
+		catalogVersion.increment();
 		
-		return new ProductDTO(entity);
+		return toDto(entity, categories);
 	}
 	
 
+	@CacheEvict(value = CacheConfig.PRODUCTS, key = "#id")
 	@Transactional
 	public ProductDTO update(Long id, ProductDTO dto) {
 		
 		try {
 			Product entity = productRepository.getOne(id);
+			OptimisticRetry.checkVersion(entity.getVersion(), dto.getVersion());
 			
-			copyDtoToEntity(entity, dto);
+			List<CategoryDTO> categories = copyDtoToEntity(entity, dto);
 			entity = productRepository.save(entity);
+			searchIndex.index(entity.getId(), entity.getName(), entity.getDescription());
+			catalogVersion.increment();
 			
-			return new ProductDTO(entity);
+			return toDto(entity, categories);
 			
 		} catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
@@ -75,9 +309,16 @@ public class ProductService {
 		
 	}
 
+	@CacheEvict(value = CacheConfig.PRODUCTS, key = "#id")
+	@Transactional
 	public void delete(Long id) {
 		try {
 			productRepository.deleteById(id);
+			// A violação de integridade precisa aparecer aqui, não no commit.
+			productRepository.flush();
+			tombstoneRepository.save(new Tombstone(Tombstone.PRODUCT, id));
+			searchIndex.remove(id);
+			catalogVersion.increment();
 			
 		} catch (EmptyResultDataAccessException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
@@ -87,18 +328,75 @@ public class ProductService {
 		}
 	}
 
-	private void copyDtoToEntity(Product entity, ProductDTO dto) {
+	/*
+	 * Carrega os produtos (com categorias) em uma única consulta,
+	 * mantendo a ordem da lista de ids recebida.
+	 * */
+	private List<Product> findAllWithCategories(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Map<Long, Product> map = productRepository.findWithCategoriesByIdIn(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		
+		return ids.stream().map(map::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	private static <T> List<T> truncate(List<T> list, int size) {
+		return list.size() > size ? list.subList(0, size) : list;
+	}
+	
+	private List<ProductSummaryDTO> findSummaries(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		Map<Long, ProductSummaryDTO> map = productRepository.findSummariesByIdIn(ids).stream()
+				.collect(Collectors.toMap(ProductSummaryDTO::getId, Function.identity()));
+		
+		for (ProductCategoryProjection x : productRepository.findCategoriesByProductIdIn(ids)) {
+			CategoryDTO category = new CategoryDTO();
+			category.setId(x.getCategoryId());
+			category.setName(x.getCategoryName());
+			map.get(x.getProductId()).getCategories().add(category);
+		}
+		
+		return ids.stream().map(map::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	private TransactionTemplate readOnly() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		return template;
+	}
+	
+	private List<ProductDTO> toDtoWithCategories(List<Product> list) {
+		return list.stream().map(x -> new ProductDTO(x, x.getCategories())).collect(Collectors.toList());
+	}
+	
+	private ProductDTO toDto(Product entity, List<CategoryDTO> categories) {
+		ProductDTO dto = new ProductDTO(entity);
+		dto.getCategories().addAll(categories);
+		return dto;
+	}
+	
+	/*
+	 * As categorias são resolvidas em uma única consulta; ids inexistentes
+	 * geram InvalidReferenceException (422) antes de qualquer escrita.
+	 * */
+	private List<CategoryDTO> copyDtoToEntity(Product entity, ProductDTO dto) {
 		entity.setName(dto.getName());
 		entity.setPrice(dto.getPrice());
 		entity.setDate(dto.getDate());
 		entity.setDescription(dto.getDescription());
 		entity.setImgUrl(dto.getImgUrl());
 		
-		entity.getCategories().clear();
+		List<Long> ids = dto.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toList());
+		List<Category> categories = referenceResolver.resolve("categories", categoryRepository, ids, Category::getId);
 		
-		for (CategoryDTO aux : dto.getCategories()) {
-			Category category = categoryRepository.getOne(aux.getId());
-			entity.getCategories().add(category);
-		}
+		referenceResolver.replaceContents(entity.getCategories(), categories);
+		
+		return categories.stream().map(CategoryDTO::new).collect(Collectors.toList());
 	}
 }
\ No newline at end of file
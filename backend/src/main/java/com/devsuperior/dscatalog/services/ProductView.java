@@ -0,0 +1,17 @@
+package com.devsuperior.dscatalog.services;
+
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
+
+public enum ProductView {
+
+	SUMMARY, FULL;
+
+	public static ProductView of(String name) {
+		for (ProductView view : values()) {
+			if (view.name().equalsIgnoreCase(name)) {
+				return view;
+			}
+		}
+		throw new InvalidRequestException("Invalid view " + name);
+	}
+}
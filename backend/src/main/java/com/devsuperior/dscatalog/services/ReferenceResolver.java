@@ -0,0 +1,78 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.services.exceptions.InvalidReferenceException;
+
+/*
+ * Resolve as referências de uma escrita (categorias de um produto, papéis
+ * de um usuário) com um único findAllById, em vez de um getOne por id que
+ * só falharia no flush, como violação de chave estrangeira.
+ * */
+@Component
+public class ReferenceResolver {
+
+	/*
+	 * Entidades na ordem dos ids informados, sem repetição; ids nulos ou
+	 * inexistentes geram InvalidReferenceException com todos eles.
+	 * */
+	public <T> List<T> resolve(String field, JpaRepository<T, Long> repository, Collection<Long> ids, Function<T, Long> idOf) {
+		Set<Long> distinct = new LinkedHashSet<>(ids);
+		if (distinct.contains(null)) {
+			throw new InvalidReferenceException(field, List.of("null"));
+		}
+		
+		Map<Long, T> found = findAll(repository, distinct, idOf);
+		
+		List<T> result = new ArrayList<>(distinct.size());
+		List<Long> missing = new ArrayList<>();
+		for (Long id : distinct) {
+			T entity = found.get(id);
+			if (entity == null) {
+				missing.add(id);
+			} else {
+				result.add(entity);
+			}
+		}
+		if (!missing.isEmpty()) {
+			throw new InvalidReferenceException(field, missing);
+		}
+		return result;
+	}
+	
+	/*
+	 * Apenas as entidades encontradas, por id; quem chama decide o que
+	 * fazer com as ausentes (a importação em lote rejeita só a linha).
+	 * */
+	public <T> Map<Long, T> findAll(JpaRepository<T, Long> repository, Collection<Long> ids, Function<T, Long> idOf) {
+		if (ids.isEmpty()) {
+			return Map.of();
+		}
+		return repository.findAllById(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+	}
+	
+	/*
+	 * Troca o conteúdo de uma coleção @ManyToMany aplicando só a diferença.
+	 * Com clear() + addAll() a PersistentSet fica suja mesmo sem mudança:
+	 * o Hibernate agenda a atualização da coleção, incrementa a versão do
+	 * dono e invalida a região da coleção no cache de segundo nível. Aqui
+	 * ela só fica suja se algum membro entrar ou sair, e o flush gera um
+	 * DELETE/INSERT na tabela de junção por membro alterado.
+	 * */
+	public <T> void replaceContents(Set<T> target, Collection<T> entities) {
+		Set<T> desired = new HashSet<>(entities);
+		target.retainAll(desired);
+		target.addAll(desired);
+	}
+}
@@ -0,0 +1,43 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.dto.RoleDTO;
+import com.devsuperior.dscatalog.repositories.RoleRepository;
+
+/*
+ * Os papéis são poucos e praticamente fixos: ficam em um mapa imutável,
+ * e os RoleDTO são compartilhados por todos os usuários. Um id
+ * desconhecido (papel criado depois da carga) recarrega o mapa inteiro.
+ * */
+@Component
+public class RoleRegistry {
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	private volatile Map<Long, RoleDTO> roles = Map.of();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void refresh() {
+		roles = roleRepository.findAll().stream()
+				.map(RoleDTO::new)
+				.collect(Collectors.toUnmodifiableMap(RoleDTO::getId, Function.identity()));
+	}
+
+	public RoleDTO get(Long id) {
+		RoleDTO role = roles.get(id);
+		if (role == null) {
+			refresh();
+			role = roles.get(id);
+		}
+		return role;
+	}
+}
@@ -0,0 +1,96 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/*
+ * Agrupa cargas concorrentes da mesma chave: a primeira chamada (leader)
+ * executa o loader e as que chegam enquanto ela roda esperam pelo mesmo
+ * resultado, ou pela mesma exceção. Quem espera desiste sozinho depois de
+ * dscatalog.single-flight.timeout (503) ou se for interrompido; a carga do
+ * leader nunca é cancelada, porque outras chamadas podem depender dela.
+ * Terminada a carga a chave sai do mapa e a próxima chamada carrega de novo.
+ *
+ * Diferente do @Cacheable(sync = true), o loader roda fora do lock do
+ * Caffeine e quem espera não segura transação nem conexão. Por isso o
+ * Caffeine não mede mais o tempo de carga (cache.load.duration fica zerado);
+ * a latência das cargas do leader sai em dscatalog.single-flight.load.
+ * */
+@Component
+public class SingleFlight {
+
+	private static final String CALLS = "dscatalog.single-flight.calls";
+	private static final String LOAD = "dscatalog.single-flight.load";
+
+	private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+	private final MeterRegistry registry;
+	private final Duration timeout;
+
+	public SingleFlight(MeterRegistry registry, @Value("${dscatalog.single-flight.timeout:5s}") Duration timeout) {
+		this.registry = registry;
+		this.timeout = timeout;
+
+		Gauge.builder("dscatalog.single-flight.in-flight", inFlight, ConcurrentMap::size)
+				.register(registry);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T execute(String name, Object key, Supplier<T> loader) {
+		List<Object> flightKey = List.of(name, key);
+		CompletableFuture<Object> mine = new CompletableFuture<>();
+		CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, mine);
+
+		if (existing == null) {
+			registry.counter(CALLS, "name", name, "outcome", "leader").increment();
+			Timer.Sample sample = Timer.start(registry);
+			String outcome = "success";
+			try {
+				T value = loader.get();
+				mine.complete(value);
+				return value;
+			} catch (RuntimeException | Error e) {
+				outcome = "failure";
+				mine.completeExceptionally(e);
+				throw e;
+			} finally {
+				inFlight.remove(flightKey, mine);
+				sample.stop(registry.timer(LOAD, "name", name, "outcome", outcome));
+			}
+		}
+
+		try {
+			T value = (T) existing.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			registry.counter(CALLS, "name", name, "outcome", "coalesced").increment();
+			return value;
+		} catch (ExecutionException e) {
+			registry.counter(CALLS, "name", name, "outcome", "coalesced").increment();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			registry.counter(CALLS, "name", name, "outcome", "timeout").increment();
+			throw new ServiceUnavailableException("Timed out waiting for a concurrent load of " + name + " " + key);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			registry.counter(CALLS, "name", name, "outcome", "cancelled").increment();
+			throw new ServiceUnavailableException("Interrupted while waiting for a concurrent load of " + name + " " + key);
+		}
+	}
+}
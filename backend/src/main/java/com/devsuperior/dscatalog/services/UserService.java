@@ -1,7 +1,12 @@
 package com.devsuperior.dscatalog.services;
 
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
@@ -10,13 +15,15 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.devsuperior.dscatalog.dto.RoleDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
+import com.devsuperior.dscatalog.dto.UserRoleProjection;
 import com.devsuperior.dscatalog.entities.Role;
 import com.devsuperior.dscatalog.entities.User;
 import com.devsuperior.dscatalog.repositories.RoleRepository;
@@ -28,7 +35,10 @@ import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 public class UserService {
 	
 	@Autowired
-	BCryptPasswordEncoder passwordEncoder;
+	PasswordHashingService passwordHashingService;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
 	
 	@Autowired
 	UserRepository userRepository;
@@ -36,37 +46,69 @@ public class UserService {
 	@Autowired 
 	RoleRepository roleRepository;
 	
+	@Autowired
+	RoleRegistry roleRegistry;
+	
+	@Autowired
+	ReferenceResolver referenceResolver;
+	
+	@Autowired
+	EmailRegistry emailRegistry;
+	
+	/*
+	 * Os papéis da página inteira vêm em uma única consulta e os RoleDTO
+	 * saem do RoleRegistry: a listagem custa um número fixo de consultas.
+	 * */
 	@Transactional(readOnly = true)
 	public Page<UserDTO> findAllPaged(Pageable pageable) {
-		return userRepository.findAll(pageable).map(user -> new UserDTO(user));
-		
+		Page<User> page = userRepository.findAll(pageable);
+		Map<Long, List<RoleDTO>> roles = findRoles(page.map(User::getId).getContent());
+		return page.map(user -> new UserDTO(user, roles.getOrDefault(user.getId(), Collections.emptyList())));
 	}
 	
 	@Transactional(readOnly = true)
 	public UserDTO findById(Long id) throws NoSuchElementException {
 		User entity = userRepository.findById(id).orElseThrow();
-		return new UserDTO(entity);
+		return new UserDTO(entity, findRoles(List.of(id)).getOrDefault(id, Collections.emptyList()));
 	}
 	
-	@Transactional
-	public UserDTO insert(UserInsertDTO dto) {
-		User entity = new User();
-		
-		copyDtoToEntity(dto, entity);
-		entity.setPassword(passwordEncoder.encode(dto.getPassword()));
-		entity = userRepository.save(entity);
-		return new UserDTO(entity);
+	/*
+	 * O hash é feito no PasswordHashingService, antes de abrir a transação:
+	 * nenhuma conexão do pool fica presa enquanto o BCrypt calcula.
+	 * */
+	public CompletableFuture<UserDTO> insert(UserInsertDTO dto) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		return passwordHashingService.encode(dto.getPassword())
+				.thenApply(hash -> {
+					try {
+						return template.execute(status -> {
+							User entity = new User();
+							
+							List<RoleDTO> roles = copyDtoToEntity(dto, entity);
+							entity.setPassword(hash);
+							emailRegistry.add(entity.getEmail());
+							entity = userRepository.save(entity);
+							return new UserDTO(entity, roles);
+						});
+					}
+					catch (DataIntegrityViolationException e) {
+						// Email duplicado que passou pela validação (cadastros simultâneos).
+						throw new DataBaseException("Integrity violation");
+					}
+				});
 	}
 	
 	@Transactional
 	public UserDTO update(Long id, UserInsertDTO dto) {
 		try {			
 			User entity = userRepository.getOne(id);
+			OptimisticRetry.checkVersion(entity.getVersion(), dto.getVersion());
 			
-			copyDtoToEntity(dto, entity);
+			List<RoleDTO> roles = copyDtoToEntity(dto, entity);
+			emailRegistry.add(entity.getEmail());
 			entity = userRepository.save(entity);
 			
-			return new UserDTO(entity);
+			return new UserDTO(entity, roles);
 		}
 		catch (EntityNotFoundException e) {
 			throw new ResourceNotFoundException("Id not found " + id);
@@ -86,17 +128,25 @@ public class UserService {
 		}
 	}
 	
-	private void copyDtoToEntity(UserDTO dto, User entity) {
+	private Map<Long, List<RoleDTO>> findRoles(List<Long> userIds) {
+		if (userIds.isEmpty()) {
+			return new HashMap<>();
+		}
+		return userRepository.findRoleIdsByUserIdIn(userIds).stream()
+				.collect(Collectors.groupingBy(UserRoleProjection::getUserId,
+						Collectors.mapping(x -> roleRegistry.get(x.getRoleId()), Collectors.toList())));
+	}
+	
+	private List<RoleDTO> copyDtoToEntity(UserDTO dto, User entity) {
 		entity.setEmail(dto.getEmail());
 		entity.setFirstName(dto.getFirstName());
 		entity.setLastName(dto.getLastName());
 		
-		entity.getRoles().clear();
+		List<Long> ids = dto.getRoles().stream().map(RoleDTO::getId).collect(Collectors.toList());
+		List<Role> roles = referenceResolver.resolve("roles", roleRepository, ids, Role::getId);
+		
+		referenceResolver.replaceContents(entity.getRoles(), roles);
 		
-		for(Iterator<RoleDTO> iter = dto.getRoles().iterator(); iter.hasNext();) {
-			Long id = iter.next().getId();
-			Role role = roleRepository.getOne(id);
-			entity.getRoles().add(role);
-		}		
+		return roles.stream().map(x -> roleRegistry.get(x.getId())).collect(Collectors.toList());
 	}
 }
@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+import java.util.Collection;
+
+public class InvalidReferenceException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	private final String field;
+	
+	public InvalidReferenceException(String field, Collection<?> ids) {
+		super("Not found " + field + " " + ids);
+		this.field = field;
+	}
+
+	public String getField() {
+		return field;
+	}
+}
@@ -0,0 +1,273 @@
+package com.devsuperior.dscatalog.services.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.devsuperior.dscatalog.dto.ProductTextProjection;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+
+/*
+ * Índice invertido em memória sobre name e description dos produtos.
+ * Os termos são normalizados (minúsculas, sem acentos), o último termo da
+ * consulta casa por prefixo e o ranking usa BM25, com peso maior para o nome.
+ *
+ * Limites da busca por prefixo: prefixos com menos de MIN_PREFIX_LENGTH
+ * caracteres só casam o termo exato, e um prefixo que casa mais de
+ * MAX_PREFIX_EXPANSION termos expande apenas os mais frequentes (em número
+ * de produtos). Nesse caso os produtos que só têm completamentos raros ficam
+ * de fora, inclusive do total da página.
+ * */
+@Component
+public class ProductSearchIndex {
+
+	private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	private static final int NAME_WEIGHT = 3;
+	private static final int MIN_PREFIX_LENGTH = 2;
+	private static final int MAX_PREFIX_EXPANSION = 64;
+	private static final double K1 = 1.2;
+	private static final double B = 0.75;
+
+	// Maior score primeiro; empate pelo menor id, para a paginação ser estável.
+	private static final Comparator<Map.Entry<Long, Double>> RANKING =
+			Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+					.thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	// termo -> (id do produto -> frequência ponderada do termo)
+	private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+	private final Map<Long, Document> documents = new HashMap<>();
+	private long totalLength;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+
+		template.executeWithoutResult(status -> {
+			lock.writeLock().lock();
+			try (Stream<ProductTextProjection> stream = productRepository.streamAllText()) {
+				postings.clear();
+				documents.clear();
+				totalLength = 0;
+				stream.forEach(x -> addDocument(x.getId(), x.getName(), x.getDescription()));
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	/*
+	 * Dentro de uma transação, a alteração só é aplicada após o commit.
+	 * */
+	public void index(Long id, String name, String description) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			try {
+				removeDocument(id);
+				addDocument(id, name, description);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	public void remove(Long id) {
+		afterCommit(() -> {
+			lock.writeLock().lock();
+			try {
+				removeDocument(id);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		});
+	}
+
+	public Page<Long> search(String query, Pageable pageable) {
+		List<String> tokens = tokenize(query);
+		if (tokens.isEmpty()) {
+			return Page.empty(pageable);
+		}
+
+		Map<Long, Double> scores;
+		lock.readLock().lock();
+		try {
+			scores = score(tokens.get(0), tokens.size() == 1);
+			for (int i = 1; i < tokens.size() && !scores.isEmpty(); i++) {
+				scores = intersect(scores, score(tokens.get(i), i == tokens.size() - 1));
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		// Só os offset + size melhores são ordenados: heap limitado com o pior no topo.
+		long limit = Math.min(pageable.getOffset() + pageable.getPageSize(), scores.size());
+		if (pageable.getOffset() >= limit) {
+			return new PageImpl<>(Collections.emptyList(), pageable, scores.size());
+		}
+
+		PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>((int) limit, RANKING.reversed());
+		for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+			if (top.size() < limit) {
+				top.add(entry);
+			} else if (RANKING.compare(entry, top.peek()) < 0) {
+				top.poll();
+				top.add(entry);
+			}
+		}
+
+		List<Map.Entry<Long, Double>> ranked = new ArrayList<>(top);
+		ranked.sort(RANKING);
+		List<Long> content = ranked.subList((int) pageable.getOffset(), ranked.size()).stream()
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		return new PageImpl<>(content, pageable, scores.size());
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	static List<String> tokenize(String text) {
+		if (text == null) {
+			return Collections.emptyList();
+		}
+		String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		return SEPARATOR.splitAsStream(folded.toLowerCase(Locale.ROOT))
+				.filter(x -> !x.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	private Map<Long, Double> score(String token, boolean prefix) {
+		Collection<Map<Long, Integer>> matches;
+		if (prefix && token.length() >= MIN_PREFIX_LENGTH) {
+			matches = postings.subMap(token, true, token + Character.MAX_VALUE, true).values();
+			if (matches.size() > MAX_PREFIX_EXPANSION) {
+				matches = matches.stream()
+						.sorted(Comparator.comparingInt((Map<Long, Integer> x) -> x.size()).reversed())
+						.limit(MAX_PREFIX_EXPANSION)
+						.collect(Collectors.toList());
+			}
+		} else {
+			Map<Long, Integer> exact = postings.get(token);
+			matches = exact == null ? Collections.emptyList() : Collections.singletonList(exact);
+		}
+
+		double averageLength = documents.isEmpty() ? 1.0 : (double) totalLength / documents.size();
+		Map<Long, Double> result = new HashMap<>();
+
+		for (Map<Long, Integer> docs : matches) {
+			double idf = Math.log(1.0 + (documents.size() - docs.size() + 0.5) / (docs.size() + 0.5));
+			for (Map.Entry<Long, Integer> entry : docs.entrySet()) {
+				double tf = entry.getValue();
+				double norm = 1.0 - B + B * documents.get(entry.getKey()).length / averageLength;
+				result.merge(entry.getKey(), idf * tf * (K1 + 1.0) / (tf + K1 * norm), Math::max);
+			}
+		}
+		return result;
+	}
+
+	private static Map<Long, Double> intersect(Map<Long, Double> a, Map<Long, Double> b) {
+		Map<Long, Double> small = a.size() <= b.size() ? a : b;
+		Map<Long, Double> large = small == a ? b : a;
+		Map<Long, Double> result = new HashMap<>();
+		for (Map.Entry<Long, Double> entry : small.entrySet()) {
+			Double other = large.get(entry.getKey());
+			if (other != null) {
+				result.put(entry.getKey(), entry.getValue() + other);
+			}
+		}
+		return result;
+	}
+
+	private void addDocument(Long id, String name, String description) {
+		Map<String, Integer> terms = new HashMap<>();
+		tokenize(name).forEach(x -> terms.merge(x, NAME_WEIGHT, Integer::sum));
+		tokenize(description).forEach(x -> terms.merge(x, 1, Integer::sum));
+
+		int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+		documents.put(id, new Document(terms, length));
+		totalLength += length;
+
+		terms.forEach((term, tf) -> postings.computeIfAbsent(term, x -> new HashMap<>()).put(id, tf));
+	}
+
+	private void removeDocument(Long id) {
+		Document document = documents.remove(id);
+		if (document == null) {
+			return;
+		}
+		totalLength -= document.length;
+		for (String term : document.terms.keySet()) {
+			Map<Long, Integer> docs = postings.get(term);
+			docs.remove(id);
+			if (docs.isEmpty()) {
+				postings.remove(term);
+			}
+		}
+	}
+
+	private static void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	private static final class Document {
+
+		private final Map<String, Integer> terms;
+		private final int length;
+
+		private Document(Map<String, Integer> terms, int length) {
+			this.terms = terms;
+			this.length = length;
+		}
+	}
+}
@@ -8,15 +8,18 @@ import javax.validation.ConstraintValidatorContext;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
-import com.devsuperior.dscatalog.entities.User;
 import com.devsuperior.dscatalog.repositories.UserRepository;
 import com.devsuperior.dscatalog.resources.exceptions.FieldMessage;
+import com.devsuperior.dscatalog.services.EmailRegistry;
 
 public class UserInsertValidator implements ConstraintValidator<UserInsertValid, UserInsertDTO> {
 
     @Autowired
     UserRepository userRepository;
 
+    @Autowired
+    EmailRegistry emailRegistry;
+
     @Override
     public void initialize(UserInsertValid ann) {
     }
@@ -26,9 +29,8 @@ public class UserInsertValidator implements ConstraintValidator<UserInsertValid,
 
         List<FieldMessage> list = new ArrayList<>();
 
-        User user = userRepository.findByEmail(dto.getEmail());
-
-        if (user != null) {
+        // O filtro de Bloom descarta a maioria dos emails novos sem ir ao banco.
+        if (emailRegistry.mightExist(dto.getEmail()) && userRepository.existsByEmail(dto.getEmail())) {
             list.add(new FieldMessage("email", "Email já existente"));
         }
 
@@ -0,0 +1,146 @@
+package com.devsuperior.dscatalog.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * Três bancos H2 em memória (primário e duas réplicas), cada um com uma
+ * tabela node que diz quem respondeu.
+ * */
+public class ReadWriteRoutingDataSourceTests {
+
+	private DataSource primary;
+	private SwitchableDataSource replica1;
+	private SwitchableDataSource replica2;
+	private ReadWriteRoutingDataSource routing;
+
+	@BeforeEach
+	void setup() throws Exception {
+		primary = node("primary");
+		replica1 = new SwitchableDataSource(node("replica-1"));
+		replica2 = new SwitchableDataSource(node("replica-2"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		routing.close();
+	}
+
+	@Test
+	void readOnlyTransactionsShouldRotateAcrossReplicas() {
+		routing = routing(Duration.ZERO);
+
+		Set<String> readers = new HashSet<>(Arrays.asList(read(), read(), read(), read()));
+
+		Assertions.assertEquals(new HashSet<>(Arrays.asList("replica-1", "replica-2")), readers);
+	}
+
+	@Test
+	void readWriteTransactionsShouldUsePrimary() {
+		routing = routing(Duration.ZERO);
+
+		Assertions.assertEquals("primary", write());
+	}
+
+	@Test
+	void readsShouldStickToPrimaryWithinWindowAfterWrite() {
+		routing = routing(Duration.ofMinutes(1));
+		Assertions.assertNotEquals("primary", read());
+
+		write();
+
+		Assertions.assertEquals("primary", read());
+	}
+
+	@Test
+	void checkReplicasShouldDropFailingReplicaUntilItRecovers() {
+		routing = routing(Duration.ZERO);
+		replica1.down = true;
+
+		routing.checkReplicas(Duration.ofSeconds(1));
+
+		Assertions.assertEquals(Arrays.asList("replica-2"), routing.getHealthyReplicas());
+		Assertions.assertEquals("replica-2", read());
+		Assertions.assertEquals("replica-2", read());
+
+		replica1.down = false;
+		routing.checkReplicas(Duration.ofSeconds(1));
+
+		Assertions.assertEquals(Arrays.asList("replica-1", "replica-2"), routing.getHealthyReplicas());
+	}
+
+	@Test
+	void readsShouldFallBackToPrimaryWhenNoReplicaIsHealthy() {
+		routing = routing(Duration.ZERO);
+		replica1.down = true;
+		replica2.down = true;
+
+		routing.checkReplicas(Duration.ofSeconds(1));
+
+		Assertions.assertEquals("primary", read());
+	}
+
+	private ReadWriteRoutingDataSource routing(Duration stickyWindow) {
+		return new ReadWriteRoutingDataSource(primary, Arrays.asList(replica1, replica2),
+				ReadWriteRoutingDataSource.Strategy.ROUND_ROBIN, stickyWindow);
+	}
+
+	private String read() {
+		return execute(true);
+	}
+
+	private String write() {
+		return execute(false);
+	}
+
+	private String execute(boolean readOnly) {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		template.setReadOnly(readOnly);
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		return template.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private static DataSource node(String name) {
+		DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS node");
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+		return dataSource;
+	}
+
+	private static class SwitchableDataSource extends DelegatingDataSource {
+
+		private volatile boolean down;
+
+		private SwitchableDataSource(DataSource target) {
+			super(target);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (down) {
+				throw new SQLException("Replica is down");
+			}
+			return super.getConnection();
+		}
+	}
+}
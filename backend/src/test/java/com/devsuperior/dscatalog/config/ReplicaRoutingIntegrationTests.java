@@ -0,0 +1,126 @@
+package com.devsuperior.dscatalog.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.ProductService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/*
+ * O caminho de produção inteiro: JpaTransactionManager, HibernateJpaDialect e
+ * LazyConnectionDataSourceProxy na frente do roteador. As réplicas só passam a
+ * existir (IFEXISTS) quando recebem uma cópia do primário em que o produto 1
+ * tem o nome da réplica; até lá ficam fora do rodízio e a aplicação sobe
+ * lendo do primário. O nome lido diz qual banco respondeu.
+ * */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + ReplicaRoutingIntegrationTests.PRIMARY,
+		"dscatalog.datasource.replicas.enabled=true",
+		"dscatalog.datasource.replicas.urls=" + ReplicaRoutingIntegrationTests.REPLICA_1 + ";IFEXISTS=TRUE,"
+				+ ReplicaRoutingIntegrationTests.REPLICA_2 + ";IFEXISTS=TRUE",
+		"dscatalog.datasource.replicas.sticky-window=0s"
+})
+public class ReplicaRoutingIntegrationTests {
+
+	static final String PRIMARY = "jdbc:h2:mem:routing-jpa-primary;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_1 = "jdbc:h2:mem:routing-jpa-replica-1;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_2 = "jdbc:h2:mem:routing-jpa-replica-2;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private long productId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		productId = 1L;
+		List<String> script = new JdbcTemplate(database(PRIMARY)).queryForList("SCRIPT", String.class);
+		copy(script, REPLICA_1, "replica-1");
+		copy(script, REPLICA_2, "replica-2");
+		ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+		routing.checkReplicas(Duration.ofSeconds(1));
+		Assertions.assertEquals(List.of("replica-1", "replica-2"), routing.getHealthyReplicas());
+
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@Test
+	void readOnlyServiceCallsShouldBeServedByReplicas() {
+		Set<String> readers = new HashSet<>();
+		for (int i = 0; i < 4; i++) {
+			readers.add(readProductName());
+		}
+
+		Assertions.assertEquals(Set.of("replica-1", "replica-2"), readers);
+	}
+
+	@Test
+	void writeServiceCallsShouldGoToPrimary() {
+		JdbcTemplate primary = new JdbcTemplate(database(PRIMARY));
+		String originalName = primary.queryForObject("SELECT name FROM tb_product WHERE id = ?", String.class, productId);
+		ProductDTO dto = productService.findAllPaged(PageRequest.of(0, 30)).getContent().stream()
+				.filter(x -> x.getId() == productId).findFirst().get();
+		dto.setName("Written on primary");
+		dto.setVersion(null);
+
+		productService.update(productId, dto);
+
+		try {
+			Assertions.assertEquals("Written on primary",
+					primary.queryForObject("SELECT name FROM tb_product WHERE id = ?", String.class, productId));
+			Assertions.assertEquals("replica-1", new JdbcTemplate(database(REPLICA_1))
+					.queryForObject("SELECT name FROM tb_product WHERE id = ?", String.class, productId));
+		} finally {
+			primary.update("UPDATE tb_product SET name = ? WHERE id = ?", originalName, productId);
+		}
+	}
+
+	@Test
+	void everyPoolShouldBeRegisteredInHikariMetrics() {
+		for (String pool : List.of("primary", "replica-1", "replica-2")) {
+			Assertions.assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", pool).gauge(), pool);
+		}
+	}
+
+	private String readProductName() {
+		return productService.findAllPaged(PageRequest.of(0, 30)).getContent().stream()
+				.filter(x -> x.getId() == productId).findFirst().get().getName();
+	}
+
+	private void copy(List<String> script, String url, String name) {
+		JdbcTemplate replica = new JdbcTemplate(database(url));
+		replica.execute("DROP ALL OBJECTS");
+		script.forEach(replica::execute);
+		replica.update("UPDATE tb_product SET name = ? WHERE id = ?", name, productId);
+	}
+
+	private static DataSource database(String url) {
+		return new DriverManagerDataSource(url, "sa", "");
+	}
+}
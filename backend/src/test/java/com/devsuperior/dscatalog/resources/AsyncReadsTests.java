@@ -0,0 +1,112 @@
+package com.devsuperior.dscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.devsuperior.dscatalog.services.OptimisticRetry;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductImportService;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.tests.Factory;
+
+/*
+ * Uma única thread de leitura e nenhuma fila: a segunda leitura concorrente
+ * é recusada e a leitura lenta estoura o timeout do endpoint. Cada teste
+ * ganha um contexto (e um pool) novo, já que a thread presa só é liberada no fim.
+ * */
+@WebMvcTest(value = ProductResource.class, properties = {
+		"dscatalog.db-executor.threads=1",
+		"dscatalog.db-executor.queue-capacity=0",
+		"dscatalog.async.timeout.products.find-by-id=100ms"
+})
+@Import({AsyncReads.class, OptimisticRetry.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AsyncReadsTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private ProductService productService;
+
+	@MockBean
+	private ProductImportService productImportService;
+
+	@MockBean
+	private ProductExportService productExportService;
+
+	private Long slowId;
+	private CountDownLatch started;
+	private CountDownLatch release;
+
+	@BeforeEach
+	void setup() {
+		slowId = 1L;
+		started = new CountDownLatch(1);
+		release = new CountDownLatch(1);
+
+		Mockito.when(productService.findById(slowId)).thenAnswer(invocation -> {
+			started.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return Factory.createProductDTO();
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+	}
+
+	@Test
+	public void supplyShouldRejectWithRetryAfterWhenExecutorIsFull() throws Exception {
+		mockMvc.perform(get("/products/{id}", slowId)).andExpect(request().asyncStarted());
+		started.await(5, TimeUnit.SECONDS);
+
+		mockMvc.perform(get("/products/{id}", slowId))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"));
+	}
+
+	@Test
+	public void findAllShouldNotReadCatalogVersionWhenExecutorIsFull() throws Exception {
+		mockMvc.perform(get("/products/{id}", slowId)).andExpect(request().asyncStarted());
+		started.await(5, TimeUnit.SECONDS);
+
+		mockMvc.perform(get("/products").header("If-None-Match", "\"catalog-1\""))
+				.andExpect(status().isServiceUnavailable());
+
+		// A versão do catálogo também é lida no pool: sem thread livre, nada chega ao banco.
+		Mockito.verify(productService, Mockito.never()).getCatalogVersion();
+	}
+
+	@Test
+	public void supplyShouldReturnServiceUnavailableWithRetryAfterWhenEndpointTimesOut() throws Exception {
+		MvcResult result = mockMvc.perform(get("/products/{id}", slowId)).andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "1"));
+
+		// O timeout não cancela a leitura: a thread continua presa e a próxima é recusada.
+		mockMvc.perform(get("/products/{id}", slowId))
+				.andExpect(status().isServiceUnavailable());
+	}
+}
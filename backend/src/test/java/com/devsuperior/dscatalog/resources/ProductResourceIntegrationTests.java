@@ -1,20 +1,32 @@
 package com.devsuperior.dscatalog.resources;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.tests.Factory;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,8 +42,12 @@ public class ProductResourceIntegrationTests {
 	@Autowired
 	private ObjectMapper objectMapper;
 	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
 	private long existingId;
 	private long nonExistingId;
+	private long untouchedId;
 	private long countTotalProducts;
 	private ProductDTO productDTO;
 	
@@ -39,13 +55,15 @@ public class ProductResourceIntegrationTests {
 	void setup() throws Exception {
 		existingId = 1L;
 		nonExistingId = 1000L;
+		// Nenhum teste desta classe altera o produto 2; o 1 é renomeado pelos testes de update.
+		untouchedId = 2L;
 		countTotalProducts = 25L;
 		productDTO = Factory.createProductDTO();
 	}
 	
 	@Test
 	void findAllShouldReturnSortedPageWhenSortByName() throws Exception {
-		ResultActions result =	mockMvc.perform(get("/products?page=0&size=10&sort=name,asc"));
+		ResultActions result =	performAsync(get("/products?page=0&size=10&sort=name,asc"));
 		
 		result.andExpect(
 			ResultMatcher.matchAll(
@@ -59,6 +77,95 @@ public class ProductResourceIntegrationTests {
 		
 	}
 	
+	@Test
+	void findAllByCursorShouldReturnBadRequestWhenCursorIsInvalid() throws Exception {
+		ResultActions result = performAsync(get("/products?after=not-a-cursor"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	void findByIdShouldReturnNotModifiedWhenETagIsCurrent() throws Exception {
+		String eTag = performAsync(get("/products/{id}", existingId))
+				.andExpect(status().isOk())
+				.andExpect(header().exists("Last-Modified"))
+				.andReturn().getResponse().getHeader("ETag");
+		
+		Assertions.assertNotNull(eTag);
+		
+		performAsync(get("/products/{id}", existingId).header("If-None-Match", eTag))
+				.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	void findAllShouldReturnNotModifiedWhileCatalogIsUnchanged() throws Exception {
+		String eTag = performAsync(get("/products?page=0&size=10"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		
+		performAsync(get("/products?page=0&size=10").header("If-None-Match", eTag))
+				.andExpect(status().isNotModified());
+	}
+	
+	@Test
+	void findAllShouldReturnOkWhenAnotherInstanceChangedTheCatalog() throws Exception {
+		String eTag = performAsync(get("/products?page=0&size=10"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+		
+		// Escrita de outra instância: só a linha do banco muda, nada passa por este contexto.
+		jdbcTemplate.update("UPDATE tb_catalog_revision SET revision = revision + 1 WHERE id = 1");
+		
+		performAsync(get("/products?page=0&size=10").header("If-None-Match", eTag))
+				.andExpect(status().isOk());
+	}
+	
+	@Test
+	void exportShouldStreamEveryProductAsNdjson() throws Exception {
+		MvcResult started = mockMvc.perform(get("/products/export?format=ndjson"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"products.ndjson\""))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(countTotalProducts, lines.length);
+		
+		ProductDTO second = objectMapper.readValue(lines[1], ProductDTO.class);
+		Assertions.assertEquals(untouchedId, second.getId());
+		Assertions.assertEquals("Smart TV", second.getName());
+		Assertions.assertEquals(Set.of("Livros", "Computadores"),
+				second.getCategories().stream().map(CategoryDTO::getName).collect(Collectors.toSet()));
+	}
+	
+	@Test
+	void exportShouldStreamEveryProductAsCsv() throws Exception {
+		MvcResult started = mockMvc.perform(get("/products/export?format=csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		String body = mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+		
+		String[] lines = body.split("\n");
+		Assertions.assertEquals(countTotalProducts + 1, lines.length);
+		Assertions.assertTrue(lines[0].startsWith("id,name,description,price"));
+		Assertions.assertTrue(lines[1].startsWith(existingId + ","));
+		Assertions.assertTrue(lines[2].startsWith(untouchedId + ",Smart TV,\"Lorem ipsum dolor sit amet,"));
+		Assertions.assertTrue(lines[2].endsWith(",1|3,Livros|Computadores") || lines[2].endsWith(",3|1,Computadores|Livros"));
+	}
+	
+	@Test
+	void exportShouldReturnBadRequestWhenFormatIsUnknown() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products/export?format=xml"));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
 	@Test
 	void updateShouldReturnProductDTOWhenExistingId() throws Exception {
 		String body = objectMapper.writeValueAsString(productDTO);
@@ -98,4 +205,25 @@ public class ProductResourceIntegrationTests {
 		
 	}
 	
+	
+	@Test
+	public void updateShouldReturnUnprocessableEntityWhenCategoryDoesNotExist() throws Exception {
+		CategoryDTO unknown = new CategoryDTO();
+		unknown.setId(nonExistingId);
+		productDTO.getCategories().add(unknown);
+		String body = objectMapper.writeValueAsString(productDTO);
+		
+		ResultActions result = mockMvc.perform(put("/products/{id}", existingId)
+				.content(body)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isUnprocessableEntity());
+		result.andExpect(jsonPath("$.errors[0].fieldName").value("categories"));
+	}
+	
+	private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+		MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
 }
@@ -1,12 +1,17 @@
 package com.devsuperior.dscatalog.resources;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -15,19 +20,39 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import com.devsuperior.dscatalog.dto.CatalogChangesDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.ImportSummaryDTO;
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.PriceRangeFacetDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetPageDTO;
+import com.devsuperior.dscatalog.dto.ProductLookupDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.dto.ResourceVersionDTO;
+import com.devsuperior.dscatalog.dto.TombstoneDTO;
+import com.devsuperior.dscatalog.services.OptimisticRetry;
+import com.devsuperior.dscatalog.services.ProductExportService;
+import com.devsuperior.dscatalog.services.ProductImportService;
 import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
 import com.devsuperior.dscatalog.services.exceptions.DataBaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 import com.devsuperior.dscatalog.tests.Factory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 @WebMvcTest(ProductResource.class)
+@Import({AsyncReads.class, OptimisticRetry.class})
 public class ProductResourceTests {
 	
 	@Autowired
@@ -36,6 +61,12 @@ public class ProductResourceTests {
 	@MockBean
 	private ProductService productService;
 	
+	@MockBean
+	private ProductImportService productImportService;
+	
+	@MockBean
+	private ProductExportService productExportService;
+	
 	@Autowired
 	private ObjectMapper objectMapper;
 	
@@ -43,6 +74,8 @@ public class ProductResourceTests {
 	private Long existingId;
 	private Long nonExistingId;
 	private Long dependentId;
+	private Long conflictId;
+	private Long contendedId;
 
 	private PageImpl<ProductDTO> page;
 	
@@ -50,18 +83,36 @@ public class ProductResourceTests {
 	void setup() {
 		
 		productDTO = Factory.createProductDTO();
+		productDTO.setVersion(3L);
 		page = new PageImpl<>(List.of(productDTO));
 		existingId = 1L;
 		nonExistingId = 2L;
 		dependentId = 3L;
+		conflictId = 4L;
+		contendedId = 5L;
 		
 		Mockito.when(productService.findAllPaged(Mockito.any())).thenReturn(page);
+		Mockito.when(productService.findAllFiltered(Mockito.any(), Mockito.any())).thenReturn(new ProductFacetPageDTO<>(
+				List.of(productDTO), PageRequest.of(0, 20), 1L,
+				List.of(new CategoryFacetDTO(2L, "Eletrônicos", 1L)),
+				List.of(new PriceRangeFacetDTO(0.0, null, 1L))));
+		Mockito.when(productService.findAllSummaries(Mockito.any())).thenReturn(new PageImpl<>(List.of(
+				new ProductSummaryDTO(productDTO.getId(), productDTO.getName(), productDTO.getPrice(), productDTO.getImgUrl(), productDTO.getDate()))));
+		Mockito.when(productService.search(Mockito.any(), Mockito.any())).thenReturn(page);
+		Mockito.when(productService.findAllByCursor(Mockito.any(), Mockito.any(), Mockito.anyInt()))
+				.thenReturn(new CursorPageDTO<>(List.of(productDTO), 20, "cursor"));
 		
 		Mockito.when(productService.findById(existingId)).thenReturn(productDTO);
 		Mockito.when(productService.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 		
+		Mockito.when(productService.getCatalogVersion()).thenReturn(new ResourceVersionDTO("catalog-1", Instant.parse("2021-01-01T00:00:00Z")));
+		
 		Mockito.when(productService.update(Mockito.eq(existingId), Mockito.any())).thenReturn(productDTO);
 		Mockito.when(productService.update(Mockito.eq(nonExistingId), Mockito.any())).thenThrow(ResourceNotFoundException.class);
+		Mockito.when(productService.update(Mockito.eq(conflictId), Mockito.any())).thenThrow(new ConflictException("Stale version"));
+		Mockito.when(productService.update(Mockito.eq(contendedId), Mockito.any()))
+				.thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"))
+				.thenReturn(productDTO);
 		
 		Mockito.doNothing().when(productService).delete(existingId);
 		Mockito.doThrow(ResourceNotFoundException.class).when(productService).delete(nonExistingId);
@@ -69,19 +120,159 @@ public class ProductResourceTests {
 		
 		
 		Mockito.when(productService.insert(Mockito.any())).thenReturn(productDTO);
+		Mockito.when(productImportService.importProducts(Mockito.any())).thenReturn(new ImportSummaryDTO());
 		
 	}
 	
 	@Test
 	public void findAllPagedShouldReturnPage() throws Exception {
-		mockMvc.perform(get("/products")).andExpect(status().isOk());
+		performAsync(get("/products")).andExpect(status().isOk());
 		Mockito.verify(productService).findAllPaged(Mockito.any());
 	}
 	
 	
+	@Test
+	public void findAllPagedShouldReturnSummariesWhenViewIsSummary() throws Exception {
+		ResultActions result = performAsync(get("/products?view=summary")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(productDTO.getName()));
+		result.andExpect(jsonPath("$.content[0].description").doesNotExist());
+		Mockito.verify(productService, Mockito.never()).findAllPaged(Mockito.any());
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnBadRequestWhenViewIsInvalid() throws Exception {
+		ResultActions result = mockMvc.perform(get("/products?view=compact")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isBadRequest());
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnFacetsWhenFilterIsPresent() throws Exception {
+		ResultActions result = performAsync(get("/products?categoryId=2&minPrice=10")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(productDTO.getName()));
+		result.andExpect(jsonPath("$.categoryFacets[0].count").value(1));
+		result.andExpect(jsonPath("$.priceFacets[0].min").value(0.0));
+		Mockito.verify(productService).findAllFiltered(Mockito.argThat(x -> x.getCategoryId() == 2L
+				&& x.getMinPrice() == 10.0 && x.getMaxPrice() == null), Mockito.any());
+		Mockito.verify(productService, Mockito.never()).findAllPaged(Mockito.any());
+	}
+	
+	@Test
+	public void findAllByCursorShouldReturnSliceWhenAfterParameterIsPresent() throws Exception {
+		ResultActions result = performAsync(get("/products?after=&size=20")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content").exists());
+		result.andExpect(jsonPath("$.nextCursor").value("cursor"));
+		result.andExpect(jsonPath("$.totalElements").doesNotExist());
+		Mockito.verify(productService).findAllByCursor("", "name", 20);
+	}
+	
+	@Test
+	public void searchShouldReturnPageWhenQueryIsPresent() throws Exception {
+		ResultActions result = performAsync(get("/products/search?q=phone")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(productDTO.getName()));
+		Mockito.verify(productService).search(Mockito.eq("phone"), Mockito.any());
+	}
+	
+	@Test
+	public void findByIdsShouldReturnLookupsInRequestOrder() throws Exception {
+		Mockito.when(productService.findByIds(List.of(existingId, nonExistingId))).thenReturn(List.of(
+				new ProductLookupDTO(existingId, productDTO), new ProductLookupDTO(nonExistingId, null)));
+		
+		ResultActions result = performAsync(get("/products?ids={a},{b}", existingId, nonExistingId)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$[0].id").value(existingId));
+		result.andExpect(jsonPath("$[0].found").value(true));
+		result.andExpect(jsonPath("$[0].product.name").value(productDTO.getName()));
+		result.andExpect(jsonPath("$[1].id").value(nonExistingId));
+		result.andExpect(jsonPath("$[1].found").value(false));
+		Mockito.verify(productService, Mockito.never()).findAllPaged(Mockito.any());
+	}
+	
+	@Test
+	public void findChangesShouldReturnChangesAndNextWatermark() throws Exception {
+		Mockito.when(productService.findChanges("w1", 50)).thenReturn(new CatalogChangesDTO(List.of(productDTO), List.of(),
+				List.of(new TombstoneDTO("product", nonExistingId, Instant.now())), false, "w2"));
+		
+		ResultActions result = performAsync(get("/products/changes?since=w1&size=50")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.products[0].name").value(productDTO.getName()));
+		result.andExpect(jsonPath("$.deleted[0].id").value(nonExistingId));
+		result.andExpect(jsonPath("$.hasMore").value(false));
+		result.andExpect(jsonPath("$.watermark").value("w2"));
+		Mockito.verify(productService, Mockito.never()).findById(Mockito.any());
+	}
+	
+	@Test
+	public void bulkInsertShouldAcceptNdjsonBody() throws Exception {
+		String body = objectMapper.writeValueAsString(productDTO) + "\n" + objectMapper.writeValueAsString(productDTO);
+		
+		ResultActions result = mockMvc.perform(post("/products/bulk")
+				.content(body)
+				.contentType(MediaType.APPLICATION_NDJSON)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.imported").exists());
+		result.andExpect(jsonPath("$.errors").isArray());
+		Mockito.verify(productImportService).importProducts(Mockito.any());
+	}
+	
+	@Test
+	public void findByIdShouldReturnNotModifiedWithoutBodyWhenETagMatches() throws Exception {
+		ResultActions result = performAsync(get("/products/{id}", existingId)
+				.header("If-None-Match", "\"3.0\"")
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(header().string("ETag", "\"3.0\""));
+		result.andExpect(content().string(""));
+	}
+	
+	@Test
+	public void findByIdShouldDeriveETagFromReturnedProduct() throws Exception {
+		productDTO.setVersion(7L);
+		productDTO.getCategories().get(0).setVersion(2L);
+		productDTO.setUpdatedAt(Instant.parse("2021-01-01T00:00:00Z"));
+		
+		ResultActions result = performAsync(get("/products/{id}", existingId)
+				.accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(header().string("ETag", "\"7.2\""));
+		result.andExpect(header().exists("Last-Modified"));
+		result.andExpect(jsonPath("$.version").value(7L));
+	}
+	
+	@Test
+	public void findAllPagedShouldReturnNotModifiedWhenCatalogVersionMatches() throws Exception {
+		ResultActions result = performAsync(get("/products")
+				.header("If-None-Match", "\"catalog-1\""));
+		
+		result.andExpect(status().isNotModified());
+		result.andExpect(header().string("ETag", "\"catalog-1\""));
+		Mockito.verify(productService, Mockito.never()).findAllPaged(Mockito.any());
+	}
+	
 	@Test
 	public void findByIdShouldReturnProductDTOWhenExistingId() throws Exception {
-		ResultActions result = mockMvc.perform(get("/products/{id}", existingId)
+		ResultActions result = performAsync(get("/products/{id}", existingId)
 				.accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isOk());
@@ -92,7 +283,7 @@ public class ProductResourceTests {
 	
 	@Test
 	public void findByIdShouldReturnNotFoundWhenNonExistingId() throws Exception {
-		ResultActions result = mockMvc.perform(get("/products/{id}", nonExistingId)
+		ResultActions result = performAsync(get("/products/{id}", nonExistingId)
 				.accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isNotFound());
@@ -128,6 +319,45 @@ public class ProductResourceTests {
 		result.andExpect(status().isNotFound());
 	}
 	
+	@Test
+	public void updateShouldReturnConflictWhenVersionIsStale() throws Exception {
+		String body = objectMapper.writeValueAsString(productDTO);
+		
+		ResultActions result = mockMvc.perform(put("/products/{id}", conflictId)
+				.content(body)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isConflict());
+	}
+	
+	@Test
+	public void updateShouldRetryWhenConcurrentWriterWins() throws Exception {
+		String body = objectMapper.writeValueAsString(productDTO);
+		
+		ResultActions result = mockMvc.perform(put("/products/{id}", contendedId)
+				.content(body)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		Mockito.verify(productService, Mockito.times(2)).update(Mockito.eq(contendedId), Mockito.any());
+	}
+	
+	@Test
+	public void updateShouldReturnConflictWithoutRetryWhenVersionIsMissing() throws Exception {
+		productDTO.setVersion(null);
+		String body = objectMapper.writeValueAsString(productDTO);
+		
+		ResultActions result = mockMvc.perform(put("/products/{id}", contendedId)
+				.content(body)
+				.accept(MediaType.APPLICATION_JSON)
+				.contentType(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isConflict());
+		Mockito.verify(productService, Mockito.times(1)).update(Mockito.eq(contendedId), Mockito.any());
+	}
+	
 	
 	@Test
 	public void deleteShouldReturnNoContentWhenExistigId() throws Exception {
@@ -177,4 +407,9 @@ public class ProductResourceTests {
 		resultActions.andExpect(status().isCreated());
 		resultActions.andExpect(jsonPath("$.id").exists());
 	}
+	
+	private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+		MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(started));
+	}
 }
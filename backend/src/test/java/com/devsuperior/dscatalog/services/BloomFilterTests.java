@@ -0,0 +1,49 @@
+package com.devsuperior.dscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTests {
+
+	private static final int USERS = 1_000_000;
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	@Test
+	void mightContainShouldNeverMissInsertedValues() {
+		BloomFilter filter = new BloomFilter(USERS, FALSE_POSITIVE_RATE);
+		for (int i = 0; i < USERS; i++) {
+			filter.put("user" + i + "@gmail.com");
+		}
+
+		for (int i = 0; i < USERS; i++) {
+			Assertions.assertTrue(filter.mightContain("user" + i + "@gmail.com"));
+		}
+	}
+
+	/*
+	 * Com 1M de usuários cadastrados, 1M de emails novos: cada "não contém"
+	 * é uma consulta ao banco evitada pelo validador.
+	 * */
+	@Test
+	void falsePositiveRateShouldStayNearConfiguredRateAtOneMillionUsers() {
+		BloomFilter filter = new BloomFilter(USERS, FALSE_POSITIVE_RATE);
+		for (int i = 0; i < USERS; i++) {
+			filter.put("user" + i + "@gmail.com");
+		}
+
+		long falsePositives = 0;
+		for (int i = 0; i < USERS; i++) {
+			if (filter.mightContain("novel" + i + "@gmail.com")) {
+				falsePositives++;
+			}
+		}
+		double rate = (double) falsePositives / USERS;
+		long lookupsSaved = USERS - falsePositives;
+
+		System.out.printf("Bloom filter: %d bits (%.1f MB), %d hashes, false positive rate %.4f, lookups saved %d of %d%n",
+				filter.bitCount(), filter.bitCount() / 8.0 / 1024 / 1024, filter.hashCount(), rate, lookupsSaved, USERS);
+
+		Assertions.assertTrue(rate < FALSE_POSITIVE_RATE * 1.5, "false positive rate " + rate);
+		Assertions.assertTrue(lookupsSaved >= USERS * 0.98);
+	}
+}
@@ -0,0 +1,109 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.config.HibernateCacheConfig;
+import com.devsuperior.dscatalog.dto.CacheRegionDTO;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class CacheAdminServiceIntegrationTests {
+
+	@Autowired
+	private CacheAdminService cacheAdminService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private CacheManager hibernateCacheManager;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setup() throws Exception {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		cacheAdminService.evictAll();
+	}
+
+	@Test
+	void categoryShouldBeServedFromSecondLevelCacheInNewPersistenceContext() {
+		categoryRepository.findById(1L);
+
+		statistics.clear();
+		categoryRepository.findById(1L);
+
+		Assertions.assertEquals(1, statistics.getDomainDataRegionStatistics("category").getHitCount());
+		Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void pagedIdsShouldBeServedFromQueryCache() {
+		productRepository.findPagedIds(PageRequest.of(0, 3));
+
+		statistics.clear();
+		productRepository.findPagedIds(PageRequest.of(0, 3));
+
+		Assertions.assertEquals(2, statistics.getQueryCacheHitCount());
+		Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void regionsShouldBeBoundedAsConfigured() {
+		for (String region : List.of("category", "product", "product.categories", "user.roles", HibernateCacheConfig.QUERY_RESULTS)) {
+			CaffeineConfiguration<?, ?> configuration = hibernateCacheManager.getCache(region).getConfiguration(CaffeineConfiguration.class);
+
+			Assertions.assertTrue(configuration.getMaximumSize().isPresent(), region);
+			Assertions.assertTrue(configuration.getExpireAfterWrite().isPresent(), region);
+		}
+		Assertions.assertEquals(10000L, hibernateCacheManager.getCache("product.categories")
+				.getConfiguration(CaffeineConfiguration.class).getMaximumSize().getAsLong());
+	}
+
+	@Test
+	void findAllShouldListConfiguredRegions() {
+		List<String> names = cacheAdminService.findAll().stream().map(CacheRegionDTO::getName).collect(Collectors.toList());
+
+		Assertions.assertTrue(names.containsAll(List.of("category", "role", "product", "product.categories",
+				"user.roles", HibernateCacheConfig.QUERY_RESULTS)));
+	}
+
+	@Test
+	void evictShouldClearRegion() {
+		categoryRepository.findById(1L);
+		cacheAdminService.evict("category");
+
+		statistics.clear();
+		categoryRepository.findById(1L);
+
+		Assertions.assertEquals(0, statistics.getDomainDataRegionStatistics("category").getHitCount());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void evictShouldThrowResourceNotFoundExceptionWhenRegionDoesNotExist() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> cacheAdminService.evict("unknown"));
+	}
+}
@@ -0,0 +1,181 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import com.devsuperior.dscatalog.config.CacheConfig;
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.services.exceptions.ConflictException;
+import com.github.benmanes.caffeine.cache.Cache;
+
+@SpringBootTest
+public class CategoryServiceIntegrationTests {
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private OptimisticRetry optimisticRetry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private long existingId;
+	private Cache<Object, Object> categoriesCache;
+
+	@SuppressWarnings("unchecked")
+	@BeforeEach
+	void setup() throws Exception {
+		existingId = 1L;
+		categoriesCache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.CATEGORIES).getNativeCache();
+		categoriesCache.invalidateAll();
+	}
+
+	@Test
+	void findByIdShouldServeRepeatedLookupsFromCache() {
+		long hits = categoriesCache.stats().hitCount();
+		long misses = categoriesCache.stats().missCount();
+
+		CategoryDTO first = categoryService.findById(existingId);
+		CategoryDTO second = categoryService.findById(existingId);
+
+		Assertions.assertEquals(first.getName(), second.getName());
+		Assertions.assertEquals(misses + 1, categoriesCache.stats().missCount());
+		Assertions.assertEquals(hits + 1, categoriesCache.stats().hitCount());
+	}
+
+	@Test
+	void updateShouldRefreshCachedCategory() {
+		String originalName = categoryService.findById(existingId).getName();
+
+		CategoryDTO dto = new CategoryDTO();
+		dto.setName("Livros Usados");
+		categoryService.update(existingId, dto);
+
+		try {
+			Assertions.assertEquals("Livros Usados", categoryService.findById(existingId).getName());
+		} finally {
+			dto.setName(originalName);
+			categoryService.update(existingId, dto);
+		}
+	}
+
+	@Test
+	void updateShouldEvictCachedProductsWhenCategoryIsRenamed() {
+		long productOfCategoryId = 2L;
+		String originalName = categoryService.findById(existingId).getName();
+		productService.findById(productOfCategoryId);
+
+		CategoryDTO dto = new CategoryDTO();
+		dto.setName("Livros Usados");
+		categoryService.update(existingId, dto);
+
+		try {
+			Assertions.assertTrue(productService.findById(productOfCategoryId).getCategories().stream()
+					.anyMatch(x -> "Livros Usados".equals(x.getName())));
+		} finally {
+			dto.setName(originalName);
+			categoryService.update(existingId, dto);
+		}
+	}
+
+	@Test
+	void updateShouldThrowConflictExceptionWhenVersionIsStale() {
+		CategoryDTO current = categoryService.findById(existingId);
+
+		CategoryDTO dto = new CategoryDTO();
+		dto.setName(current.getName());
+		dto.setVersion(current.getVersion() - 1);
+
+		Assertions.assertThrows(ConflictException.class, () -> categoryService.update(existingId, dto));
+	}
+
+	@Test
+	void concurrentWritersWithSameVersionShouldLetExactlyOneWin() throws Exception {
+		CategoryDTO current = categoryService.findById(existingId);
+
+		try {
+			List<Boolean> results = writeConcurrently(16, current.getVersion());
+
+			Assertions.assertEquals(1, results.stream().filter(x -> x).count());
+			Assertions.assertEquals(current.getVersion() + 1, categoryRepository.findById(existingId).get().getVersion());
+		} finally {
+			restoreName(current.getName());
+		}
+	}
+
+	@Test
+	void concurrentWritersWithoutVersionShouldNeverLoseAnUpdate() throws Exception {
+		CategoryDTO current = categoryService.findById(existingId);
+
+		try {
+			List<Boolean> results = writeConcurrently(16, null);
+
+			long successes = results.stream().filter(x -> x).count();
+			Assertions.assertTrue(successes > 0);
+			Assertions.assertEquals(current.getVersion() + successes, categoryRepository.findById(existingId).get().getVersion());
+		} finally {
+			restoreName(current.getName());
+		}
+	}
+
+	/*
+	 * Todos os escritores partem juntos contra a mesma linha, cada um com um
+	 * nome diferente; true para quem gravou, false para quem recebeu 409.
+	 * */
+	private List<Boolean> writeConcurrently(int writers, Long version) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> futures = new ArrayList<>();
+		try {
+			for (int i = 0; i < writers; i++) {
+				CategoryDTO dto = new CategoryDTO();
+				dto.setName("Writer " + i);
+				dto.setVersion(version);
+				futures.add(pool.submit(() -> {
+					start.await();
+					try {
+						optimisticRetry.execute(dto.getVersion(), () -> categoryService.update(existingId, dto));
+						return true;
+					} catch (ConflictException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			List<Boolean> results = new ArrayList<>();
+			for (Future<Boolean> future : futures) {
+				results.add(future.get(30, TimeUnit.SECONDS));
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void restoreName(String name) {
+		CategoryDTO dto = new CategoryDTO();
+		dto.setName(name);
+		categoryService.update(existingId, dto);
+	}
+}
@@ -0,0 +1,28 @@
+package com.devsuperior.dscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+public class EmailRegistryIntegrationTests {
+
+	@Autowired
+	private EmailRegistry emailRegistry;
+
+	@Test
+	void mightExistShouldBeTrueForEmailsLoadedAtStartup() {
+		Assertions.assertTrue(emailRegistry.mightExist("alex@gmail.com"));
+		Assertions.assertTrue(emailRegistry.mightExist("maria@gmail.com"));
+	}
+
+	@Test
+	void mightExistShouldBeTrueAfterAdd() {
+		String email = "registry-test@gmail.com";
+
+		emailRegistry.add(email);
+
+		Assertions.assertTrue(emailRegistry.mightExist(email));
+	}
+}
@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHashingServiceTests {
+
+	private CountDownLatch release;
+	private SimpleMeterRegistry registry;
+	private PasswordHashingService service;
+
+	@BeforeEach
+	void setup() throws Exception {
+		release = new CountDownLatch(1);
+		registry = new SimpleMeterRegistry();
+
+		// Encoder que só termina quando o teste libera: simula um BCrypt lento.
+		PasswordEncoder encoder = new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "hash:" + rawPassword;
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				return encodedPassword.equals("hash:" + rawPassword);
+			}
+		};
+		service = new PasswordHashingService(encoder, registry, 1, 1);
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		service.shutdown();
+	}
+
+	@Test
+	void encodeShouldHashOutsideCallerThread() throws Exception {
+		release.countDown();
+
+		Assertions.assertEquals("hash:secret", service.encode("secret").get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(1, registry.get("dscatalog.password.hash").timer().count());
+	}
+
+	@Test
+	void encodeShouldRejectImmediatelyWhenQueueIsFull() throws Exception {
+		CompletableFuture<String> running = service.encode("first");
+		CompletableFuture<String> queued = service.encode("second");
+
+		long start = System.nanoTime();
+		Assertions.assertThrows(ServiceUnavailableException.class, () -> service.encode("third"));
+		Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+		Assertions.assertEquals(1.0, registry.get("dscatalog.password.hash.queue").gauge().value());
+
+		release.countDown();
+		Assertions.assertEquals("hash:first", running.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals("hash:second", queued.get(5, TimeUnit.SECONDS));
+	}
+}
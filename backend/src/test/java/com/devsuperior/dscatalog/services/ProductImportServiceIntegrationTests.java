@@ -0,0 +1,120 @@
+package com.devsuperior.dscatalog.services;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ImportSummaryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.tests.Factory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ProductImportServiceIntegrationTests {
+
+	@Autowired
+	private ProductImportService productImportService;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private long countTotalProducts;
+	private long nonExistingCategoryId;
+
+	@BeforeEach
+	void setup() throws Exception {
+		countTotalProducts = 25L;
+		nonExistingCategoryId = 1000L;
+	}
+
+	@AfterEach
+	void cleanUp() {
+		productRepository.findAll().stream()
+				.filter(x -> x.getId() > countTotalProducts)
+				.forEach(x -> productService.delete(x.getId()));
+	}
+
+	@Test
+	void importProductsShouldInsertValidRowsAndReportInvalidOnes() throws Exception {
+		List<ProductDTO> rows = new ArrayList<>();
+		for (int i = 0; i < 120; i++) {
+			ProductDTO dto = Factory.createProductDTO();
+			dto.setId(null);
+			dto.setName("Imported " + i);
+			rows.add(dto);
+		}
+		rows.get(10).setName("");
+		CategoryDTO nonExistingCategory = new CategoryDTO();
+		nonExistingCategory.setId(nonExistingCategoryId);
+		rows.get(50).getCategories().add(nonExistingCategory);
+
+		ImportSummaryDTO summary = productImportService.importProducts(
+				new ByteArrayInputStream(objectMapper.writeValueAsBytes(rows)));
+
+		Assertions.assertEquals(120, summary.getReceived());
+		Assertions.assertEquals(118, summary.getImported());
+		Assertions.assertEquals(2, summary.getFailed());
+		Assertions.assertEquals(11L, summary.getErrors().get(0).getRow());
+		Assertions.assertEquals(51L, summary.getErrors().get(1).getRow());
+		Assertions.assertEquals(countTotalProducts + 118, productRepository.count());
+	}
+
+	@Test
+	void importProductsShouldWriteInBatches() throws Exception {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < 200; i++) {
+			ProductDTO dto = Factory.createProductDTO();
+			dto.setId(null);
+			dto.setName("Imported " + i);
+			body.append(objectMapper.writeValueAsString(dto)).append('\n');
+		}
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		ImportSummaryDTO summary = productImportService.importProducts(
+				new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+
+		Assertions.assertEquals(200, summary.getImported());
+		Assertions.assertEquals(200, statistics.getEntityInsertCount());
+		// 4 chamadas à sequência, 4 lotes de produtos, 4 lotes da tabela de junção e 1 consulta de categorias
+		Assertions.assertTrue(statistics.getPrepareStatementCount() < 20);
+	}
+
+	@Test
+	void importProductsShouldSkipRowsWithInvalidValuesAndKeepReading() throws Exception {
+		ProductDTO dto = Factory.createProductDTO();
+		dto.setId(null);
+		String valid = objectMapper.writeValueAsString(dto);
+		String body = valid + "\n{\"name\": \"Bad price\", \"price\": \"abc\"}\n" + valid + "\n";
+
+		ImportSummaryDTO summary = productImportService.importProducts(
+				new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+		Assertions.assertEquals(3, summary.getReceived());
+		Assertions.assertEquals(2, summary.getImported());
+		Assertions.assertEquals(2L, summary.getErrors().get(0).getRow());
+	}
+}
@@ -1,21 +1,54 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.devsuperior.dscatalog.config.CacheConfig;
+import com.devsuperior.dscatalog.dto.CatalogChangesDTO;
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.CategoryFacetDTO;
+import com.devsuperior.dscatalog.dto.CursorPageDTO;
+import com.devsuperior.dscatalog.dto.PriceRangeFacetDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetPageDTO;
+import com.devsuperior.dscatalog.dto.ProductFilterDTO;
+import com.devsuperior.dscatalog.dto.ProductLookupDTO;
+import com.devsuperior.dscatalog.dto.ProductSummaryDTO;
+import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Tombstone;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.InvalidRequestException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
 
 @Transactional
-@SpringBootTest
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"dscatalog.changes.settle-time=0s"
+})
 public class ProductServiceIntegrationTests {
 	
 	@Autowired
@@ -24,6 +57,12 @@ public class ProductServiceIntegrationTests {
 	@Autowired
 	private ProductRepository productRepository;
 	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
 	private long existingId;
 	private long nonExistingId;
 	private long countTotalProducts;
@@ -33,6 +72,9 @@ public class ProductServiceIntegrationTests {
 		existingId = 1L;
 		nonExistingId = 1000L;
 		countTotalProducts = 25L;
+		
+		// As contagens de consultas abaixo não podem depender do cache de segundo nível.
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
 	}
 	
 	
@@ -62,6 +104,40 @@ public class ProductServiceIntegrationTests {
 		Assertions.assertEquals(countTotalProducts, page.getTotalElements());
 	}
 	
+	@Test
+	void findAllPagedShouldLoadCategoriesWithConstantNumberOfStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		statistics.clear();
+		Page<ProductDTO> small = productService.findAllPaged(PageRequest.of(0, 5));
+		long smallPageStatements = statistics.getPrepareStatementCount();
+		
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+		statistics.clear();
+		Page<ProductDTO> large = productService.findAllPaged(PageRequest.of(0, 20));
+		long largePageStatements = statistics.getPrepareStatementCount();
+		
+		Assertions.assertTrue(small.getContent().stream().allMatch(x -> !x.getCategories().isEmpty()));
+		Assertions.assertTrue(large.getContent().stream().allMatch(x -> !x.getCategories().isEmpty()));
+		Assertions.assertEquals(3, smallPageStatements);
+		Assertions.assertEquals(smallPageStatements, largePageStatements);
+	}
+	
+	@Test
+	void findAllSummariesShouldReturnSortedPageWithoutLoadingEntities() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		statistics.clear();
+		Page<ProductSummaryDTO> result = productService.findAllSummaries(PageRequest.of(0, 10, Sort.by("name")));
+		
+		Assertions.assertEquals(countTotalProducts, result.getTotalElements());
+		Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
+		Assertions.assertTrue(result.getContent().stream().allMatch(x -> !x.getCategories().isEmpty()));
+		Assertions.assertEquals(0, statistics.getEntityLoadCount());
+		Assertions.assertEquals(4, statistics.getPrepareStatementCount());
+	}
+	
 	@Test
 	void findAllPagedShouldReturnEmptyPageWhenPageDoesNotExist() {
 		PageRequest pageRequest = PageRequest.of(50, 10);
@@ -82,4 +158,295 @@ public class ProductServiceIntegrationTests {
 		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
 		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
 	}
+	
+	@Test
+	void findAllByCursorShouldReturnSortedSliceWhenFirstPage() {
+		CursorPageDTO<ProductDTO> result = productService.findAllByCursor("", "name", 10);
+		
+		Assertions.assertEquals(10, result.getNumberOfElements());
+		Assertions.assertTrue(result.isHasNext());
+		Assertions.assertNotNull(result.getNextCursor());
+		Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
+		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
+	}
+	
+	@Test
+	void findAllByCursorShouldVisitEveryProductOnceWhenFollowingCursors() {
+		Set<Long> ids = new HashSet<>();
+		String cursor = "";
+		int pages = 0;
+		
+		do {
+			CursorPageDTO<ProductDTO> result = productService.findAllByCursor(cursor, "date", 10);
+			result.getContent().forEach(x -> Assertions.assertTrue(ids.add(x.getId())));
+			cursor = result.getNextCursor();
+			pages++;
+		} while (cursor != null);
+		
+		Assertions.assertEquals(countTotalProducts, ids.size());
+		Assertions.assertEquals(3, pages);
+	}
+	
+	@Test
+	void findAllByCursorShouldVisitProductsWithoutDateLastWhenOrderedByDate() {
+		Set<Long> undated = new HashSet<>(Arrays.asList(3L, 7L, 11L, 12L, 20L, 24L));
+		for (Long id : undated) {
+			Product product = productRepository.getOne(id);
+			product.setDate(null);
+		}
+		productRepository.flush();
+		
+		List<Long> visited = new ArrayList<>();
+		String cursor = "";
+		do {
+			CursorPageDTO<ProductDTO> result = productService.findAllByCursor(cursor, "date", 4);
+			result.getContent().forEach(x -> visited.add(x.getId()));
+			cursor = result.getNextCursor();
+		} while (cursor != null);
+		
+		Assertions.assertEquals(countTotalProducts, new HashSet<>(visited).size());
+		Assertions.assertEquals(countTotalProducts, visited.size());
+		Assertions.assertEquals(Arrays.asList(3L, 7L, 11L, 12L, 20L, 24L),
+				visited.subList(visited.size() - undated.size(), visited.size()));
+	}
+	
+	@Test
+	void findAllFilteredShouldCountFacetsIgnoringTheirOwnFilter() {
+		ProductFilterDTO filter = new ProductFilterDTO(3L, null, null, null);
+		
+		ProductFacetPageDTO<ProductDTO> result = productService.findAllFiltered(filter, PageRequest.of(0, 10, Sort.by("name")));
+		
+		Assertions.assertEquals(23, result.getTotalElements());
+		Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+		
+		Map<Long, Long> categories = result.getCategoryFacets().stream()
+				.collect(Collectors.toMap(CategoryFacetDTO::getCategoryId, CategoryFacetDTO::getCount));
+		Assertions.assertEquals(Map.of(1L, 1L, 2L, 2L, 3L, 23L), categories);
+		
+		List<Long> prices = result.getPriceFacets().stream().map(PriceRangeFacetDTO::getCount).collect(Collectors.toList());
+		Assertions.assertEquals(List.of(0L, 0L, 0L, 16L, 7L, 0L), prices);
+		Assertions.assertNull(result.getPriceFacets().get(5).getMax());
+	}
+	
+	@Test
+	void findAllFilteredShouldCombineFilters() {
+		ProductFilterDTO filter = new ProductFilterDTO(null, 2000.0, null, "gamer");
+		
+		ProductFacetPageDTO<ProductDTO> result = productService.findAllFiltered(filter, PageRequest.of(0, 10));
+		
+		Assertions.assertEquals(6, result.getTotalElements());
+		Assertions.assertTrue(result.getContent().stream().allMatch(x -> x.getPrice() >= 2000.0));
+		Assertions.assertEquals(1, result.getCategoryFacets().size());
+		Assertions.assertEquals(6L, result.getCategoryFacets().get(0).getCount());
+		
+		List<Long> prices = result.getPriceFacets().stream().map(PriceRangeFacetDTO::getCount).collect(Collectors.toList());
+		Assertions.assertEquals(List.of(0L, 0L, 0L, 15L, 6L, 0L), prices);
+	}
+	
+	@Test
+	void findAllFilteredShouldMatchWildcardCharactersInNameLiterally() {
+		Product product = productRepository.findById(existingId).get();
+		product.setName("100% Cotton_Shirt \\ Blue");
+		productRepository.saveAndFlush(product);
+		
+		for (String name : List.of("%", "_", "\\", "0% c", "n_s")) {
+			ProductFacetPageDTO<ProductDTO> result = productService.findAllFiltered(
+					new ProductFilterDTO(null, null, null, name), PageRequest.of(0, 10));
+			
+			Assertions.assertEquals(1, result.getTotalElements(), name);
+			Assertions.assertEquals(existingId, result.getContent().get(0).getId());
+		}
+	}
+	
+	@Test
+	void findAllFilteredShouldUseConstantNumberOfStatements() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		
+		statistics.clear();
+		productService.findAllFiltered(new ProductFilterDTO(3L, 1000.0, 3000.0, null), PageRequest.of(0, 20));
+		
+		Assertions.assertEquals(5, statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	void findAllFilteredShouldThrowInvalidRequestExceptionWhenPriceRangeIsInverted() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> {
+			productService.findAllFiltered(new ProductFilterDTO(null, 500.0, 100.0, null), PageRequest.of(0, 10));
+		});
+	}
+	
+	@Test
+	void findAllFilteredShouldThrowInvalidRequestExceptionWhenSortPropertyIsUnknown() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> {
+			productService.findAllFiltered(new ProductFilterDTO(3L, null, null, null), PageRequest.of(0, 10, Sort.by("imgUrl")));
+		});
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void findByIdsShouldServeCacheHitsAndLoadMissesWithOneStatement() {
+		Cache<Object, Object> cache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.PRODUCTS).getNativeCache();
+		cache.invalidateAll();
+		productService.findById(existingId);
+		
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		List<ProductLookupDTO> result = productService.findByIds(List.of(3L, nonExistingId, existingId, 3L));
+		
+		Assertions.assertEquals(List.of(3L, nonExistingId, existingId, 3L),
+				result.stream().map(ProductLookupDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(List.of(true, false, true, true),
+				result.stream().map(ProductLookupDTO::isFound).collect(Collectors.toList()));
+		Assertions.assertFalse(result.get(0).getProduct().getCategories().isEmpty());
+		Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+		Assertions.assertNotNull(cache.getIfPresent(3L));
+	}
+	
+	@Test
+	void findByIdsShouldThrowInvalidRequestExceptionWhenTooManyIds() {
+		List<Long> ids = LongStream.rangeClosed(1, 101).boxed().collect(Collectors.toList());
+		
+		Assertions.assertThrows(InvalidRequestException.class, () -> productService.findByIds(ids));
+	}
+	
+	@Test
+	void findByIdsShouldThrowInvalidRequestExceptionWhenAnIdIsNull() {
+		List<Long> ids = Arrays.asList(existingId, null);
+		
+		Assertions.assertThrows(InvalidRequestException.class, () -> productService.findByIds(ids));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	void productsCacheShouldExpireEntriesAfterWrite() {
+		Cache<Object, Object> cache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.PRODUCTS).getNativeCache();
+		
+		Assertions.assertEquals(5L, cache.policy().expireAfterWrite().get().getExpiresAfter(TimeUnit.MINUTES));
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void findByIdShouldServeFromCacheUntilProductIsUpdated() {
+		Cache<Object, Object> cache = (Cache<Object, Object>) cacheManager.getCache(CacheConfig.PRODUCTS).getNativeCache();
+		cache.invalidateAll();
+		long hits = cache.stats().hitCount();
+		
+		ProductDTO original = productService.findById(existingId);
+		productService.findById(existingId);
+		
+		Assertions.assertEquals(hits + 1, cache.stats().hitCount());
+		
+		ProductDTO changed = new ProductDTO(original.getId(), "Updated name", original.getDescription(),
+				original.getPrice(), original.getImgUrl(), original.getDate());
+		changed.getCategories().addAll(original.getCategories());
+		
+		try {
+			productService.update(existingId, changed);
+			Assertions.assertEquals("Updated name", productService.findById(existingId).getName());
+		} finally {
+			original.setVersion(null);
+			productService.update(existingId, original);
+		}
+	}
+	
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void updateShouldNotTouchJoinTableWhenCategoriesAreUnchanged() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		ProductDTO original = productService.findById(existingId);
+		long version = productRepository.findVersionById(existingId).get().getVersion();
+		
+		statistics.clear();
+		productService.update(existingId, original);
+		
+		Assertions.assertEquals(0, statistics.getCollectionUpdateCount());
+		Assertions.assertEquals(0, statistics.getCollectionRecreateCount());
+		Assertions.assertEquals(0, statistics.getCollectionRemoveCount());
+		Assertions.assertEquals(0, statistics.getEntityUpdateCount());
+		Assertions.assertEquals(version, productRepository.findVersionById(existingId).get().getVersion());
+	}
+	
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void updateShouldApplyOnlyChangedCategories() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		ProductDTO original = productService.findById(existingId);
+		Set<Long> originalIds = original.getCategories().stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+		long addedId = originalIds.contains(3L) ? 1L : 3L;
+		CategoryDTO added = new CategoryDTO();
+		added.setId(addedId);
+		
+		ProductDTO changed = new ProductDTO(original.getId(), original.getName(), original.getDescription(),
+				original.getPrice(), original.getImgUrl(), original.getDate());
+		changed.getCategories().addAll(original.getCategories());
+		changed.getCategories().add(added);
+		
+		try {
+			statistics.clear();
+			productService.update(existingId, changed);
+			
+			Set<Long> expected = new HashSet<>(originalIds);
+			expected.add(addedId);
+			Assertions.assertEquals(1, statistics.getCollectionUpdateCount());
+			Assertions.assertEquals(0, statistics.getCollectionRecreateCount());
+			Assertions.assertEquals(expected, productService.findById(existingId).getCategories().stream()
+					.map(CategoryDTO::getId).collect(Collectors.toSet()));
+		} finally {
+			original.setVersion(null);
+			productService.update(existingId, original);
+		}
+	}
+	
+	@Test
+	void findChangesShouldVisitEveryProductOnceFromEmptyWatermark() {
+		Set<Long> ids = new HashSet<>();
+		drainChanges(null, ids);
+		
+		Assertions.assertTrue(ids.containsAll(LongStream.rangeClosed(1, countTotalProducts).boxed().collect(Collectors.toList())));
+	}
+	
+	@Test
+	void findChangesShouldReturnOnlyChangesAfterWatermark() {
+		long deletedId = 3L;
+		String watermark = drainChanges(null, new HashSet<>());
+		
+		ProductDTO dto = productService.findById(existingId);
+		dto.setName("Updated name");
+		productService.update(existingId, dto);
+		productService.delete(deletedId);
+		productRepository.flush();
+		
+		CatalogChangesDTO changes = productService.findChanges(watermark, 10);
+		
+		Assertions.assertFalse(changes.isHasMore());
+		Assertions.assertEquals(List.of(existingId), changes.getProducts().stream().map(ProductDTO::getId).collect(Collectors.toList()));
+		Assertions.assertEquals(List.of(Tombstone.PRODUCT + ":" + deletedId), changes.getDeleted().stream()
+				.map(x -> x.getType() + ":" + x.getId()).collect(Collectors.toList()));
+		
+		CatalogChangesDTO next = productService.findChanges(changes.getWatermark(), 10);
+		Assertions.assertTrue(next.getProducts().isEmpty());
+		Assertions.assertTrue(next.getDeleted().isEmpty());
+	}
+	
+	@Test
+	void findChangesShouldThrowInvalidRequestExceptionWhenWatermarkIsInvalid() {
+		Assertions.assertThrows(InvalidRequestException.class, () -> productService.findChanges("not-a-watermark", 10));
+	}
+	
+	/*
+	 * Segue os watermarks até o fim, guardando os ids de produto entregues;
+	 * um produto repetido entre páginas falha o teste.
+	 * */
+	private String drainChanges(String since, Set<Long> productIds) {
+		CatalogChangesDTO page;
+		do {
+			page = productService.findChanges(since, 10);
+			page.getProducts().forEach(x -> Assertions.assertTrue(productIds.add(x.getId())));
+			since = page.getWatermark();
+		} while (page.isHasMore());
+		return since;
+	}
 }
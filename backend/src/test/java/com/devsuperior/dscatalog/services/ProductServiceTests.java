@@ -1,7 +1,9 @@
 package com.devsuperior.dscatalog.services;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.persistence.EntityNotFoundException;
 
@@ -13,6 +15,7 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
@@ -20,16 +23,23 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
 import com.devsuperior.dscatalog.services.exceptions.DataBaseException;
+import com.devsuperior.dscatalog.services.exceptions.InvalidReferenceException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.search.ProductSearchIndex;
 import com.devsuperior.dscatalog.tests.Factory;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @ExtendWith(SpringExtension.class)
 public class ProductServiceTests {
 	
@@ -42,12 +52,30 @@ public class ProductServiceTests {
 	@Mock
 	private CategoryRepository categoryRepository;
 	
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+	
+	@Spy
+	private ReferenceResolver referenceResolver;
+	
+	@Mock
+	private ProductSearchIndex searchIndex;
+	
+	@Mock
+	private CatalogVersion catalogVersion;
+	
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), Duration.ofSeconds(5));
+	
 	private Long existingId;
 	private	Long nonExistingId;
 	private	Long dependentId;
 	private	Product product;
 	private Category category;
-	private PageImpl<Product> page;
+	private PageImpl<Long> page;
 	
 	@BeforeEach
 	void setup() throws Exception {
@@ -57,7 +85,7 @@ public class ProductServiceTests {
 		
 		product = Factory.createProduct();
 		category = Factory.createCategory();
-		page = new PageImpl<>(List.of(product));
+		page = new PageImpl<>(List.of(product.getId()));
 		
 		
 		Mockito.doThrow(EntityNotFoundException.class).when(repository).getOne(nonExistingId);
@@ -69,11 +97,15 @@ public class ProductServiceTests {
 		Mockito.doThrow(IllegalArgumentException.class).when(categoryRepository).getOne(ArgumentMatchers.isNull());
 		Mockito.when(categoryRepository.getOne(existingId)).thenReturn(category);
 		
+		Mockito.when(categoryRepository.findAllById(ArgumentMatchers.any())).thenReturn(List.of());
+		Mockito.when(categoryRepository.findAllById(Set.of(existingId))).thenReturn(List.of(category));
+		
 		Mockito.doThrow(IllegalArgumentException.class).when(repository).findById(ArgumentMatchers.isNull());
 		Mockito.when(repository.findById(ArgumentMatchers.anyLong())).thenReturn(Optional.empty());
 		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(product));
 		
-		Mockito.when(repository.findAll((Pageable)ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(repository.findPagedIds(ArgumentMatchers.any())).thenReturn(page);
+		Mockito.when(repository.findWithCategoriesByIdIn(ArgumentMatchers.any())).thenReturn(List.of(product));
 		
 		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(product);
 		
@@ -92,8 +124,25 @@ public class ProductServiceTests {
 		Assertions.assertEquals(productDTO.getName(), result.getName());
 		
 		Mockito.verify(repository).getOne(existingId);
-		Mockito.verify(categoryRepository).getOne(existingId);
+		Mockito.verify(categoryRepository).findAllById(Set.of(existingId));
 		Mockito.verify(repository).save(ArgumentMatchers.any());
+		Mockito.verify(searchIndex).index(ArgumentMatchers.eq(product.getId()), ArgumentMatchers.any(), ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void updateShouldThrowInvalidReferenceExceptionWhenCategoryDoesNotExist() {
+		ProductDTO productDTO = Factory.createProductDTO();
+		CategoryDTO unknown = new CategoryDTO();
+		unknown.setId(nonExistingId);
+		productDTO.getCategories().add(unknown);
+		
+		InvalidReferenceException e = Assertions.assertThrows(InvalidReferenceException.class, () -> {
+			service.update(existingId, productDTO);
+		});
+		
+		Assertions.assertEquals("categories", e.getField());
+		Mockito.verify(categoryRepository).findAllById(Set.of(existingId, nonExistingId));
+		Mockito.verify(repository, Mockito.never()).save(ArgumentMatchers.any());
 	}
 	
 	@Test
@@ -132,7 +181,9 @@ public class ProductServiceTests {
 		Page<ProductDTO> page = service.findAllPaged(pageable);
 		
 		Assertions.assertNotNull(page);
-		Mockito.verify(repository).findAll(pageable);
+		Assertions.assertFalse(page.getContent().get(0).getCategories().isEmpty());
+		Mockito.verify(repository).findPagedIds(pageable);
+		Mockito.verify(repository).findWithCategoriesByIdIn(List.of(existingId));
 	}
 	@Test
 	public void insertShouldSaveProductAndReturnProductDTOWhenPassingProductDTO() {
@@ -151,6 +202,7 @@ public class ProductServiceTests {
 		});
 		
 		Mockito.verify(repository).deleteById(nonExistingId);
+		Mockito.verifyNoInteractions(tombstoneRepository);
 	}	
 	
 	@Test
@@ -169,5 +221,6 @@ public class ProductServiceTests {
 		});
 		
 		Mockito.verify(repository).deleteById(existingId);
+		Mockito.verify(tombstoneRepository).save(ArgumentMatchers.any());
 	}
 }
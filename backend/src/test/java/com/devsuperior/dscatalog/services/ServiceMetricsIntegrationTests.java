@@ -0,0 +1,69 @@
+package com.devsuperior.dscatalog.services;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.config.MetricsAspect;
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class ServiceMetricsIntegrationTests {
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private UserService userService;
+
+	@Test
+	void metricsShouldBeRecordedInSimpleMeterRegistry() {
+		Assertions.assertTrue(registry instanceof SimpleMeterRegistry);
+	}
+
+	@Test
+	void serviceAndRepositoryCallsShouldBeTimed() {
+		long services = timerCount(MetricsAspect.SERVICE_TIMER, "class", "ProductService", "findAllPaged");
+		long repositories = timerCount(MetricsAspect.REPOSITORY_TIMER, "repository", "ProductRepository", "findPagedIds");
+
+		productService.findAllPaged(PageRequest.of(0, 5));
+
+		Assertions.assertEquals(services + 1, timerCount(MetricsAspect.SERVICE_TIMER, "class", "ProductService", "findAllPaged"));
+		Assertions.assertEquals(repositories + 1, timerCount(MetricsAspect.REPOSITORY_TIMER, "repository", "ProductRepository", "findPagedIds"));
+	}
+
+	@Test
+	void failedServiceCallsShouldBeCountedByException() {
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> userService.delete(1000L));
+
+		Counter errors = registry.find(MetricsAspect.SERVICE_ERRORS)
+				.tags("class", "UserService", "method", "delete", "exception", "ResourceNotFoundException")
+				.counter();
+		Assertions.assertNotNull(errors);
+		Assertions.assertTrue(errors.count() >= 1);
+	}
+
+	@Test
+	void hibernateAndPoolMetricsShouldBeRegistered() {
+		productService.findAllPaged(PageRequest.of(0, 5));
+
+		Assertions.assertNotNull(registry.find("hibernate.query.executions").functionCounter());
+		Assertions.assertNotNull(registry.find("hibernate.entities.loads").functionCounter());
+		Assertions.assertNotNull(registry.find("hikaricp.connections.active").gauge());
+	}
+
+	private long timerCount(String name, String typeTag, String type, String method) {
+		Timer timer = registry.find(name).tags(typeTag, type, "method", method, "exception", "none").timer();
+		return timer == null ? 0 : timer.count();
+	}
+}
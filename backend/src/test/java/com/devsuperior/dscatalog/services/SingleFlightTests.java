@@ -0,0 +1,148 @@
+package com.devsuperior.dscatalog.services;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.exceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SingleFlightTests {
+
+	private static final int CALLERS = 8;
+
+	private SimpleMeterRegistry registry;
+	private SingleFlight singleFlight;
+	private ExecutorService pool;
+	private CountDownLatch started;
+	private CountDownLatch release;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setup() throws Exception {
+		registry = new SimpleMeterRegistry();
+		singleFlight = new SingleFlight(registry, Duration.ofSeconds(5));
+		pool = Executors.newCachedThreadPool();
+		started = new CountDownLatch(1);
+		release = new CountDownLatch(1);
+		loads = new AtomicInteger();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		pool.shutdownNow();
+	}
+
+	@Test
+	void executeShouldShareOneLoadAmongConcurrentCallers() throws Exception {
+		List<Future<String>> results = startCallers(singleFlight, () -> "product");
+
+		release.countDown();
+
+		for (Future<String> result : results) {
+			Assertions.assertEquals("product", result.get(5, TimeUnit.SECONDS));
+		}
+		Assertions.assertEquals(1, loads.get());
+		Assertions.assertEquals(CALLERS - 1, calls("coalesced"));
+		Assertions.assertEquals(1, registry.get("dscatalog.single-flight.load").tag("outcome", "success").timer().count());
+	}
+
+	@Test
+	void executeShouldPropagateLeaderExceptionToWaitingCallers() throws Exception {
+		List<Future<String>> results = startCallers(singleFlight, () -> {
+			throw new ResourceNotFoundException("Entity not found");
+		});
+
+		release.countDown();
+
+		for (Future<String> result : results) {
+			Exception e = Assertions.assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+			Assertions.assertTrue(e.getCause() instanceof ResourceNotFoundException);
+		}
+		Assertions.assertEquals(1, loads.get());
+		Assertions.assertEquals(1, registry.get("dscatalog.single-flight.load").tag("outcome", "failure").timer().count());
+	}
+
+	@Test
+	void executeShouldLetWaitingCallerGiveUpWithoutCancellingLeader() throws Exception {
+		SingleFlight impatient = new SingleFlight(registry, Duration.ofMillis(50));
+		Future<String> leader = pool.submit(() -> impatient.execute("products", 1L, () -> load(() -> "product")));
+		started.await(5, TimeUnit.SECONDS);
+
+		Assertions.assertThrows(ServiceUnavailableException.class, () -> impatient.execute("products", 1L, () -> "other"));
+
+		release.countDown();
+		Assertions.assertEquals("product", leader.get(5, TimeUnit.SECONDS));
+		Assertions.assertEquals(1, calls("timeout"));
+	}
+
+	@Test
+	void executeShouldLoadAgainAfterPreviousLoadCompleted() {
+		release.countDown();
+
+		singleFlight.execute("products", 1L, () -> load(() -> "first"));
+		String second = singleFlight.execute("products", 1L, () -> load(() -> "second"));
+
+		Assertions.assertEquals("second", second);
+		Assertions.assertEquals(2, loads.get());
+	}
+
+	/*
+	 * O primeiro chamador segura a carga até release; os demais só são
+	 * liberados depois de estarem esperando por ela.
+	 * */
+	private List<Future<String>> startCallers(SingleFlight flight, Supplier<String> value) throws Exception {
+		List<Future<String>> results = new ArrayList<>();
+		results.add(pool.submit(() -> flight.execute("products", 1L, () -> load(value))));
+		started.await(5, TimeUnit.SECONDS);
+
+		List<Thread> waiting = new ArrayList<>();
+		for (int i = 1; i < CALLERS; i++) {
+			CountDownLatch running = new CountDownLatch(1);
+			Thread[] current = new Thread[1];
+			results.add(pool.submit(() -> {
+				current[0] = Thread.currentThread();
+				running.countDown();
+				return flight.execute("products", 1L, () -> load(value));
+			}));
+			running.await(5, TimeUnit.SECONDS);
+			waiting.add(current[0]);
+		}
+		for (Thread thread : waiting) {
+			while (thread.getState() != Thread.State.TIMED_WAITING) {
+				Thread.sleep(1);
+			}
+		}
+		return results;
+	}
+
+	private String load(Supplier<String> value) {
+		loads.incrementAndGet();
+		started.countDown();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return value.get();
+	}
+
+	private double calls(String outcome) {
+		return registry.get("dscatalog.single-flight.calls").tag("outcome", outcome).counter().count();
+	}
+}
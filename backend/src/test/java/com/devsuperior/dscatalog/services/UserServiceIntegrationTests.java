@@ -0,0 +1,86 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.UserDTO;
+import com.devsuperior.dscatalog.entities.User;
+import com.devsuperior.dscatalog.repositories.RoleRepository;
+import com.devsuperior.dscatalog.repositories.UserRepository;
+
+@Transactional
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class UserServiceIntegrationTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private long existingId;
+	private long countTotalUsers;
+
+	@BeforeEach
+	void setup() throws Exception {
+		existingId = 2L;
+		countTotalUsers = 2L;
+	}
+
+	@Test
+	void findByIdShouldReturnUserWithRoles() {
+		UserDTO result = userService.findById(existingId);
+
+		Assertions.assertEquals(2, result.getRoles().size());
+	}
+
+	@Test
+	void findAllPagedShouldLoadRolesWithConstantNumberOfStatements() {
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			User user = new User(null, "First " + i, "Last " + i, "user" + i + "@gmail.com", "secret");
+			user.getRoles().add(roleRepository.getOne(1L));
+			if (i % 2 == 0) {
+				user.getRoles().add(roleRepository.getOne(2L));
+			}
+			users.add(user);
+		}
+		userRepository.saveAll(users);
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Page<UserDTO> page = userService.findAllPaged(PageRequest.of(0, 1000));
+
+		Assertions.assertEquals(1000, page.getNumberOfElements());
+		Assertions.assertEquals(countTotalUsers + 1000, page.getTotalElements());
+		Assertions.assertTrue(page.getContent().stream().allMatch(x -> !x.getRoles().isEmpty()));
+		// página, count e papéis da página
+		Assertions.assertEquals(3, statistics.getPrepareStatementCount());
+	}
+}
@@ -0,0 +1,120 @@
+package com.devsuperior.dscatalog.services.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+public class ProductSearchIndexTests {
+
+	private ProductSearchIndex index;
+	
+	@BeforeEach
+	void setup() throws Exception {
+		index = new ProductSearchIndex();
+		index.index(1L, "Smart TV", "Televisão com acesso à internet");
+		index.index(2L, "Macbook Pro", "Notebook da Apple");
+		index.index(3L, "Carregador de notebook", "Fonte universal para eletrônicos");
+		index.index(4L, "Eletrônicos em geral", "Cabos e adaptadores");
+	}
+	
+	@Test
+	void tokenizeShouldFoldAccentsAndLowerCase() {
+		Assertions.assertEquals(List.of("televisao", "eletronicos", "acao"), ProductSearchIndex.tokenize("Televisão, ELETRÔNICOS! ação"));
+	}
+	
+	@Test
+	void searchShouldMatchIgnoringAccents() {
+		Page<Long> result = index.search("eletronicos", PageRequest.of(0, 10));
+		
+		Assertions.assertEquals(2, result.getTotalElements());
+	}
+	
+	@Test
+	void searchShouldMatchLastTermByPrefix() {
+		Page<Long> result = index.search("macb", PageRequest.of(0, 10));
+		
+		Assertions.assertEquals(List.of(2L), result.getContent());
+	}
+	
+	@Test
+	void searchShouldNotExpandSingleCharacterPrefix() {
+		index.index(5L, "C", "Linguagem de programação");
+		
+		Assertions.assertEquals(List.of(5L), index.search("c", PageRequest.of(0, 10)).getContent());
+	}
+	
+	@Test
+	void searchShouldExpandMostFrequentTermsWhenPrefixMatchesTooMany() {
+		// 70 completamentos raros de "ca" vêm antes, em ordem alfabética, do frequente "caz".
+		for (long i = 0; i < 70; i++) {
+			index.index(100L + i, String.format("ca%03d", i), "");
+		}
+		index.index(200L, "caz", "");
+		index.index(201L, "caz", "");
+		
+		Page<Long> result = index.search("ca", PageRequest.of(0, 100));
+		
+		Assertions.assertTrue(result.getContent().containsAll(List.of(200L, 201L)));
+	}
+	
+	@Test
+	void searchShouldRequireEveryTerm() {
+		Page<Long> result = index.search("notebook apple", PageRequest.of(0, 10));
+		
+		Assertions.assertEquals(List.of(2L), result.getContent());
+	}
+	
+	@Test
+	void searchShouldRankNameMatchesFirst() {
+		Page<Long> result = index.search("notebook", PageRequest.of(0, 10));
+		
+		Assertions.assertEquals(List.of(3L, 2L), result.getContent());
+	}
+	
+	@Test
+	void searchShouldNotReturnRemovedOrOutdatedProducts() {
+		index.remove(4L);
+		index.index(1L, "Smart TV", "Tela grande");
+		
+		Assertions.assertEquals(List.of(3L), index.search("eletronicos", PageRequest.of(0, 10)).getContent());
+		Assertions.assertTrue(index.search("internet", PageRequest.of(0, 10)).isEmpty());
+		Assertions.assertEquals(3, index.size());
+	}
+	
+	@Test
+	void searchShouldReturnRequestedPage() {
+		Page<Long> result = index.search("notebook", PageRequest.of(1, 1));
+		
+		Assertions.assertEquals(List.of(2L), result.getContent());
+		Assertions.assertEquals(2, result.getTotalElements());
+	}
+	
+	@Test
+	void searchShouldPageThroughTiesByIdWithoutRepeatingProducts() {
+		for (long id = 130; id > 100; id--) {
+			index.index(id, "Caneta azul", "");
+		}
+		
+		List<Long> visited = new ArrayList<>();
+		for (int page = 0; page < 5; page++) {
+			visited.addAll(index.search("caneta", PageRequest.of(page, 7)).getContent());
+		}
+		
+		Assertions.assertEquals(LongStream.rangeClosed(101, 130).boxed().collect(Collectors.toList()), visited);
+	}
+	
+	@Test
+	void searchShouldReturnEmptyContentWithTotalWhenPageIsPastTheEnd() {
+		Page<Long> result = index.search("notebook", PageRequest.of(5, 10));
+		
+		Assertions.assertTrue(result.getContent().isEmpty());
+		Assertions.assertEquals(2, result.getTotalElements());
+	}
+}